@@ -0,0 +1,327 @@
+package com.noahmpauls.compilers.generator.benchmarks;
+
+import com.noahmpauls.compilers.generator.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A grammar to benchmark, with the rule state 0 is built from and its
+ *  end-of-input symbol. Grammars are looked up by name, so benchmarks can
+ *  take them as a {@code @Param}:
+ *
+ * <ul>
+ *     <li>s1 - s4: the grammars over {@link S1} - {@link S4} from the
+ *      generators' demos; s4 is augmented with START -> Z EOF</li>
+ *     <li>concrete: the ambiguous ConcreteType expression grammar</li>
+ *     <li>concrete-expr: an unambiguous, LALR(1) ConcreteType expression
+ *      grammar stratified by precedence, for benchmarks that parse</li>
+ *     <li>precedence-expr: the expressions of concrete-expr written as one
+ *      ambiguous non-terminal, with {@link Precedence} declarations making
+ *      it LALR(1); relational operators are left-associative here, so it
+ *      accepts a superset of concrete-expr</li>
+ *     <li>grammar.txt: lrone/grammar.txt, augmented with START -> EXPR EOF</li>
+ *     <li>ladder-N: a synthetic expression grammar with N binary operator
+ *      precedence levels</li>
+ *     <li>synthetic-N: a {@link SyntheticGrammar} with N non-terminals and
+ *      N / 10 terminals; synthetic-200 has over 20000 LR(1) states</li>
+ * </ul>
+ */
+public class BenchmarkGrammar {
+
+    /**
+     * The names of the bundled grammars.
+     */
+    public static final String[] BUNDLED = { "s1", "s2", "s3", "s4", "concrete", "grammar.txt" };
+
+    private final SymbolTable symbols;
+    private final List<int[]> rules;
+    private final IntGrammar grammar;
+    private final int eof;
+    private final Precedence precedence;
+
+    private BenchmarkGrammar(final SymbolTable symbols, final List<int[]> rules, final String eof) {
+        this(symbols, rules, eof, new Precedence());
+    }
+
+    private BenchmarkGrammar(final SymbolTable symbols, final List<int[]> rules, final String eof, final Precedence precedence) {
+        this.symbols = symbols;
+        this.rules = rules;
+        this.grammar = new IntGrammar(symbols, rules);
+        this.eof = symbols.id(eof);
+        this.precedence = precedence;
+    }
+
+    /**
+     * @param name the name of a bundled grammar, ladder-N or synthetic-N
+     * @return the grammar
+     * @throws IllegalArgumentException if there is no grammar with the name
+     */
+    public static BenchmarkGrammar named(final String name) {
+        switch (name) {
+            case "s1":
+                return read(SymbolTable.of(S1.class), "EOF",
+                        "S_PRIME -> S EOF",
+                        "S -> L_PAREN L R_PAREN",
+                        "S -> X",
+                        "L -> S",
+                        "L -> L COMMA S");
+            case "s2":
+                return read(SymbolTable.of(S2.class), "EOF",
+                        "S -> E EOF",
+                        "E -> T PLUS E",
+                        "E -> T",
+                        "E -> X");
+            case "s3":
+                return read(SymbolTable.of(S3.class), "EOP",
+                        "SP -> S EOP",
+                        "S -> V EQ E",
+                        "S -> E",
+                        "E -> V",
+                        "V -> x",
+                        "V -> STAR E");
+            case "s4":
+                return read(SymbolTable.of(S4.class), "EOF",
+                        "START -> Z EOF",
+                        "Z -> d",
+                        "Z -> X Y Z",
+                        "Y -> [empty]",
+                        "Y -> c",
+                        "X -> Y",
+                        "X -> a");
+            case "concrete":
+                return read(SymbolTable.of(ConcreteType.class), "EOF",
+                        "START -> EXPR EOF",
+                        "EXPR -> LOCATION",
+                        "EXPR -> LITERAL",
+                        "EXPR -> LEN L_CURLY IDENTIFIER R_CURLY",
+                        "EXPR -> EXPR BIN_OP EXPR",
+                        "EXPR -> MINUS EXPR",
+                        "EXPR -> BANG EXPR",
+                        "EXPR -> L_PAREN EXPR R_PAREN",
+                        "BIN_OP -> ARITH_OP",
+                        "BIN_OP -> REL_OP",
+                        "BIN_OP -> EQ_OP",
+                        "BIN_OP -> COND_OP",
+                        "ARITH_OP -> PLUS",
+                        "ARITH_OP -> MINUS",
+                        "ARITH_OP -> STAR",
+                        "ARITH_OP -> FWD_SLASH",
+                        "ARITH_OP -> PERCENT",
+                        "EQ_OP -> EQ",
+                        "EQ_OP -> NEQ",
+                        "COND_OP -> AND",
+                        "COND_OP -> OR");
+            case "concrete-expr":
+                return read(SymbolTable.of(ConcreteType.class), "EOF",
+                        "START -> EXPRESSION EOF",
+                        "EXPRESSION -> OR_EXPR",
+                        "OR_EXPR -> OR_EXPR OR AND_EXPR",
+                        "OR_EXPR -> AND_EXPR",
+                        "AND_EXPR -> AND_EXPR AND EQ_EXPR",
+                        "AND_EXPR -> EQ_EXPR",
+                        "EQ_EXPR -> EQ_EXPR EQ_OP REL_EXPR",
+                        "EQ_EXPR -> REL_EXPR",
+                        "REL_EXPR -> ADD_EXPR REL_OP ADD_EXPR",
+                        "REL_EXPR -> ADD_EXPR",
+                        "ADD_EXPR -> ADD_EXPR ADD_OP MUL_EXPR",
+                        "ADD_EXPR -> MUL_EXPR",
+                        "MUL_EXPR -> MUL_EXPR MUL_OP NOT_EXPR",
+                        "MUL_EXPR -> NOT_EXPR",
+                        "NOT_EXPR -> BANG NOT_EXPR",
+                        "NOT_EXPR -> NEG_EXPR",
+                        "NEG_EXPR -> MINUS NEG_EXPR",
+                        "NEG_EXPR -> TERM_EXPR",
+                        "TERM_EXPR -> LOCATION",
+                        "TERM_EXPR -> METHOD_CALL",
+                        "TERM_EXPR -> LITERAL",
+                        "TERM_EXPR -> LEN L_PAREN IDENTIFIER R_PAREN",
+                        "TERM_EXPR -> L_PAREN EXPRESSION R_PAREN",
+                        "LOCATION -> IDENTIFIER",
+                        "LOCATION -> IDENTIFIER L_SQUARE EXPRESSION R_SQUARE",
+                        "METHOD_CALL -> IDENTIFIER L_PAREN R_PAREN",
+                        "METHOD_CALL -> IDENTIFIER L_PAREN METHOD_ARGS R_PAREN",
+                        "METHOD_ARGS -> EXPRESSION",
+                        "METHOD_ARGS -> METHOD_ARGS COMMA EXPRESSION",
+                        "ADD_OP -> PLUS",
+                        "ADD_OP -> MINUS",
+                        "MUL_OP -> STAR",
+                        "MUL_OP -> FWD_SLASH",
+                        "MUL_OP -> PERCENT",
+                        "REL_OP -> LESS",
+                        "REL_OP -> GREATER",
+                        "REL_OP -> LEQ",
+                        "REL_OP -> GEQ",
+                        "EQ_OP -> EQ",
+                        "EQ_OP -> NEQ",
+                        "LITERAL -> INT_LITERAL",
+                        "LITERAL -> CHAR_LITERAL",
+                        "LITERAL -> BOOL_LITERAL",
+                        "INT_LITERAL -> DEC_LITERAL",
+                        "INT_LITERAL -> HEX_LITERAL",
+                        "BOOL_LITERAL -> TRUE",
+                        "BOOL_LITERAL -> FALSE");
+            case "precedence-expr":
+                // rule 15 is unary minus, which binds as tightly as !
+                return read(SymbolTable.of(ConcreteType.class), "EOF", new Precedence()
+                                .left(Arrays.asList(ConcreteType.OR))
+                                .left(Arrays.asList(ConcreteType.AND))
+                                .left(Arrays.asList(ConcreteType.EQ, ConcreteType.NEQ))
+                                .left(Arrays.asList(ConcreteType.LESS, ConcreteType.GREATER, ConcreteType.LEQ, ConcreteType.GEQ))
+                                .left(Arrays.asList(ConcreteType.PLUS, ConcreteType.MINUS))
+                                .left(Arrays.asList(ConcreteType.STAR, ConcreteType.FWD_SLASH, ConcreteType.PERCENT))
+                                .right(Arrays.asList(ConcreteType.BANG))
+                                .rule(15, ConcreteType.BANG),
+                        "START -> EXPRESSION EOF",
+                        "EXPRESSION -> EXPRESSION OR EXPRESSION",
+                        "EXPRESSION -> EXPRESSION AND EXPRESSION",
+                        "EXPRESSION -> EXPRESSION EQ EXPRESSION",
+                        "EXPRESSION -> EXPRESSION NEQ EXPRESSION",
+                        "EXPRESSION -> EXPRESSION LESS EXPRESSION",
+                        "EXPRESSION -> EXPRESSION GREATER EXPRESSION",
+                        "EXPRESSION -> EXPRESSION LEQ EXPRESSION",
+                        "EXPRESSION -> EXPRESSION GEQ EXPRESSION",
+                        "EXPRESSION -> EXPRESSION PLUS EXPRESSION",
+                        "EXPRESSION -> EXPRESSION MINUS EXPRESSION",
+                        "EXPRESSION -> EXPRESSION STAR EXPRESSION",
+                        "EXPRESSION -> EXPRESSION FWD_SLASH EXPRESSION",
+                        "EXPRESSION -> EXPRESSION PERCENT EXPRESSION",
+                        "EXPRESSION -> BANG EXPRESSION",
+                        "EXPRESSION -> MINUS EXPRESSION",
+                        "EXPRESSION -> LOCATION",
+                        "EXPRESSION -> METHOD_CALL",
+                        "EXPRESSION -> LITERAL",
+                        "EXPRESSION -> LEN L_PAREN IDENTIFIER R_PAREN",
+                        "EXPRESSION -> L_PAREN EXPRESSION R_PAREN",
+                        "LOCATION -> IDENTIFIER",
+                        "LOCATION -> IDENTIFIER L_SQUARE EXPRESSION R_SQUARE",
+                        "METHOD_CALL -> IDENTIFIER L_PAREN R_PAREN",
+                        "METHOD_CALL -> IDENTIFIER L_PAREN METHOD_ARGS R_PAREN",
+                        "METHOD_ARGS -> EXPRESSION",
+                        "METHOD_ARGS -> METHOD_ARGS COMMA EXPRESSION",
+                        "LITERAL -> INT_LITERAL",
+                        "LITERAL -> CHAR_LITERAL",
+                        "LITERAL -> BOOL_LITERAL",
+                        "INT_LITERAL -> DEC_LITERAL",
+                        "INT_LITERAL -> HEX_LITERAL",
+                        "BOOL_LITERAL -> TRUE",
+                        "BOOL_LITERAL -> FALSE");
+            case "grammar.txt":
+                return grammarTxt();
+            default:
+                if (name.startsWith("ladder-"))
+                    return ladder(Integer.parseInt(name.substring("ladder-".length())));
+                if (name.startsWith("synthetic-"))
+                    return synthetic(Integer.parseInt(name.substring("synthetic-".length())));
+                throw new IllegalArgumentException("no grammar named " + name);
+        }
+    }
+
+    private static BenchmarkGrammar read(final SymbolTable symbols, final String eof, final String... lines) {
+        return new BenchmarkGrammar(symbols, IntGrammar.read(Arrays.asList(lines), symbols), eof);
+    }
+
+    private static BenchmarkGrammar read(final SymbolTable symbols, final String eof, final Precedence precedence, final String... lines) {
+        return new BenchmarkGrammar(symbols, IntGrammar.read(Arrays.asList(lines), symbols), eof, precedence);
+    }
+
+    private static BenchmarkGrammar grammarTxt() {
+        InputStream in = BenchmarkGrammar.class.getResourceAsStream("/com/noahmpauls/compilers/generator/lrone/grammar.txt");
+        if (in == null)
+            throw new IllegalStateException("lrone/grammar.txt is not on the classpath");
+        List<String> lines = new ArrayList<>();
+        lines.add("START -> EXPR EOF");
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine())
+                lines.add(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        SymbolTable symbols = new SymbolTable();
+        return new BenchmarkGrammar(symbols, IntGrammar.read(lines, symbols), "EOF");
+    }
+
+    /**
+     * Build an unambiguous expression grammar with one non-terminal per
+     *  precedence level:
+     *
+     * <pre>
+     * START -> E0 EOF
+     * Ei -> Ei OPi Ei+1 | Ei+1        for 0 &lt;= i &lt; levels
+     * Elevels -> ( E0 ) | id
+     * </pre>
+     */
+    private static BenchmarkGrammar ladder(final int levels) {
+        List<String> lines = new ArrayList<>();
+        lines.add("START -> E0 EOF");
+        for (int i = 0; i < levels; i++) {
+            lines.add("E" + i + " -> E" + i + " OP" + i + " E" + (i + 1));
+            lines.add("E" + i + " -> E" + (i + 1));
+        }
+        lines.add("E" + levels + " -> L_PAREN E0 R_PAREN");
+        lines.add("E" + levels + " -> ID");
+        SymbolTable symbols = new SymbolTable();
+        return new BenchmarkGrammar(symbols, IntGrammar.read(lines, symbols), "EOF");
+    }
+
+    private static BenchmarkGrammar synthetic(final int nonTerminals) {
+        SyntheticGrammar synthetic = SyntheticGrammar.generate(nonTerminals, Math.max(10, nonTerminals / 10), 0.1, 0.2, 3, 8, 42);
+        IntGrammar grammar = synthetic.grammar();
+        List<int[]> rules = new ArrayList<>();
+        for (int r = 0; r < grammar.ruleCount(); r++)
+            rules.add(grammar.rule(r));
+        return new BenchmarkGrammar(grammar.symbols(), rules, "EOF");
+    }
+
+    /**
+     * Generate a random sentence of the grammar, ending with its
+     *  end-of-input symbol.
+     *
+     * @see SyntheticGrammar#sentence(IntGrammar, int, int, Random)
+     */
+    public int[] sentence(final int length, final Random random) {
+        return SyntheticGrammar.sentence(grammar, start(), length, random);
+    }
+
+    /**
+     * @return the symbol names, in number order
+     */
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    /**
+     * @return the rules the grammar was built from, in the form taken by
+     *  {@link IntGrammar#IntGrammar(SymbolTable, List)}
+     */
+    public List<int[]> rules() {
+        return rules;
+    }
+
+    public IntGrammar grammar() {
+        return grammar;
+    }
+
+    /**
+     * @return the precedence declarations to generate tables with; empty
+     *  for every grammar but precedence-expr
+     */
+    public Precedence precedence() {
+        return precedence;
+    }
+
+    /**
+     * @return the rule to build state 0 from
+     */
+    public int start() {
+        return 0;
+    }
+
+    /**
+     * @return the number of the end-of-input symbol
+     */
+    public int eof() {
+        return eof;
+    }
+}
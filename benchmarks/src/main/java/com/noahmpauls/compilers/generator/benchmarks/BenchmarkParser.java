@@ -0,0 +1,71 @@
+package com.noahmpauls.compilers.generator.benchmarks;
+
+import com.noahmpauls.compilers.generator.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A parser for one grammar driven by one table representation, so the
+ *  parse benchmarks can take the representation as a {@code @Param}:
+ *
+ * <ul>
+ *     <li>map: nested maps of {@link Action}s, as given by
+ *      {@link ParseTable#toMap()}</li>
+ *     <li>dense: {@link LRParser} over the full {@link IntParseTable}</li>
+ *     <li>compressed: {@link LRParser} over a {@link CompressedParseTable}</li>
+ *     <li>mapped: {@link LRParser} over a {@link MappedParseTable} loaded
+ *      from a file</li>
+ *     <li>generated: the class emitted by {@link ParserSourceGenerator},
+ *      compiled when the parser is created</li>
+ * </ul>
+ */
+public interface BenchmarkParser {
+
+    /**
+     * The names of the table representations.
+     */
+    String[] REPRESENTATIONS = { "map", "dense", "compressed", "mapped", "generated" };
+
+    /**
+     * Parse a sequence of tokens given by their symbol numbers.
+     *
+     * @return true if the input is accepted, false on a syntax error
+     */
+    boolean parse(int[] tokens, int length);
+
+    /**
+     * Create a parser from the grammar's LALR(1) table, generated with the
+     *  grammar's precedence declarations.
+     *
+     * @param representation the name of the table representation
+     * @param input the grammar to parse
+     * @return the parser
+     * @throws IllegalArgumentException if there is no representation with
+     *  the name
+     * @throws IOException if a mapped or generated table cannot be written
+     */
+    static BenchmarkParser of(final String representation, final BenchmarkGrammar input) throws IOException {
+        IntParseTable table = com.noahmpauls.compilers.generator.lalr.ParserGenerator.createParseTable(input.grammar(), input.start(), input.eof(),
+                input.precedence(), GenerationListener.NONE);
+        switch (representation) {
+            case "map":
+                return new MapParser(table);
+            case "dense":
+                return new LRParser<>(table)::parse;
+            case "compressed":
+                return new LRParser<>(new CompressedParseTable(table))::parse;
+            case "mapped": {
+                Path file = Files.createTempFile("table", ".lrt");
+                file.toFile().deleteOnExit();
+                new CompressedParseTable(table).write(file);
+                return new LRParser<>(MappedParseTable.load(file))::parse;
+            }
+            case "generated":
+                return new GeneratedParser(table, input.grammar());
+            default:
+                throw new IllegalArgumentException("no table representation named " + representation);
+        }
+    }
+}
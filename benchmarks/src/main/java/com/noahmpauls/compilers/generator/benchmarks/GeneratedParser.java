@@ -0,0 +1,63 @@
+package com.noahmpauls.compilers.generator.benchmarks;
+
+import com.noahmpauls.compilers.generator.IntGrammar;
+import com.noahmpauls.compilers.generator.IntParseTable;
+import com.noahmpauls.compilers.generator.ParserSourceGenerator;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The parser emitted by {@link ParserSourceGenerator} for a table, compiled
+ *  with the system Java compiler and loaded into its own class loader. The
+ *  generated class shares no type with this module, so parse calls go
+ *  through a method handle bound to one instance; that costs a few
+ *  nanoseconds per parse, not per token.
+ */
+class GeneratedParser implements BenchmarkParser {
+
+    private static final String PACKAGE = "com.noahmpauls.compilers.generator.benchmarks.generated";
+    private static final String CLASS = "BenchmarkTableParser";
+
+    private final MethodHandle parse;
+
+    GeneratedParser(final IntParseTable table, final IntGrammar grammar) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null)
+            throw new IllegalStateException("generated parsers need a JDK to compile them");
+
+        Path directory = Files.createTempDirectory("parser");
+        Path source = directory.resolve(CLASS + ".java");
+        Files.write(source, ParserSourceGenerator.generate(table, grammar, PACKAGE, CLASS).getBytes(StandardCharsets.UTF_8));
+        if (compiler.run(null, null, null, "-d", directory.toString(), source.toString()) != 0)
+            throw new IllegalStateException("generated parser does not compile");
+
+        try {
+            ClassLoader loader = new URLClassLoader(new URL[]{ directory.toUri().toURL() }, GeneratedParser.class.getClassLoader());
+            Class<?> parserClass = loader.loadClass(PACKAGE + "." + CLASS);
+            this.parse = MethodHandles.publicLookup()
+                    .findVirtual(parserClass, "parse", MethodType.methodType(boolean.class, int[].class, int.class))
+                    .bindTo(parserClass.getConstructor().newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("generated parser cannot be loaded", e);
+        }
+    }
+
+    @Override
+    public boolean parse(final int[] tokens, final int length) {
+        try {
+            return (boolean) parse.invokeExact(tokens, length);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.noahmpauls.compilers.generator.benchmarks;
+
+import com.noahmpauls.compilers.generator.GenerationListener;
+import com.noahmpauls.compilers.generator.IntGrammar;
+import com.noahmpauls.compilers.generator.IntParseTable;
+import com.noahmpauls.compilers.generator.lrzero.Automaton;
+import com.noahmpauls.compilers.generator.lrzero.ItemSet;
+import com.noahmpauls.compilers.generator.lrzero.ParserGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each phase of table generation measured on its own, so a change to one
+ *  phase shows up in its own score:
+ *
+ * <ul>
+ *     <li>analysis: nullable, FIRST, FOLLOW and rule suffix FIRST sets,
+ *      computed when an {@link IntGrammar} is built</li>
+ *     <li>closure: the LR(0) closure of every kernel of the automaton</li>
+ *     <li>automaton: the whole LR(0) automaton, closures and GOTO included</li>
+ *     <li>slrTable, lalrTable: filling a table from a prebuilt automaton</li>
+ *     <li>lr1Table: the whole canonical LR(1) generator</li>
+ * </ul>
+ *
+ * Tables are generated with the grammar's precedence declarations;
+ *  concrete-expr and precedence-expr parse the same expressions, stratified
+ *  and ambiguous.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenerationBenchmark {
+
+    @Param({ "s1", "s2", "s3", "s4", "concrete", "concrete-expr", "precedence-expr", "grammar.txt", "ladder-8", "ladder-32", "synthetic-200" })
+    public String grammarName;
+
+    private BenchmarkGrammar input;
+    private Automaton automaton;
+    private List<ItemSet> kernels;
+
+    @Setup
+    public void setup() {
+        input = BenchmarkGrammar.named(grammarName);
+        automaton = ParserGenerator.createAutomaton(input.grammar(), input.start(), input.eof());
+        kernels = kernels(automaton);
+    }
+
+    /**
+     * @return the kernel of each state: the start item for state 0, and the
+     *  items with the dot past the first symbol for every other state
+     */
+    private static List<ItemSet> kernels(final Automaton automaton) {
+        IntGrammar grammar = automaton.grammar();
+        List<ItemSet> kernels = new ArrayList<>();
+        for (int i = 0; i < automaton.stateCount(); i++) {
+            ItemSet state = automaton.items(i);
+            int[] kernel = new int[state.size()];
+            int size = 0;
+            for (int k = 0; k < state.size(); k++) {
+                int item = state.get(k);
+                if (grammar.itemDot(item) > 0 || (i == 0 && grammar.itemRule(item) == automaton.startRule()))
+                    kernel[size++] = item;
+            }
+            kernels.add(ItemSet.of(kernel, size));
+        }
+        return kernels;
+    }
+
+    @Benchmark
+    public IntGrammar analysis() {
+        return new IntGrammar(input.symbols(), input.rules());
+    }
+
+    @Benchmark
+    public void closure(final Blackhole blackhole) {
+        for (ItemSet kernel : kernels)
+            blackhole.consume(ParserGenerator.closure(kernel, input.grammar()));
+    }
+
+    @Benchmark
+    public Automaton automaton() {
+        return ParserGenerator.createAutomaton(input.grammar(), input.start(), input.eof());
+    }
+
+    @Benchmark
+    public IntParseTable slrTable() {
+        return ParserGenerator.createParseTable(automaton, input.eof(), ParserGenerator.Mode.SLR,
+                input.precedence(), GenerationListener.NONE);
+    }
+
+    @Benchmark
+    public IntParseTable lalrTable() {
+        return com.noahmpauls.compilers.generator.lalr.ParserGenerator.createParseTable(automaton, input.eof(),
+                input.precedence(), GenerationListener.NONE);
+    }
+
+    @Benchmark
+    public IntParseTable lr1Table() {
+        return com.noahmpauls.compilers.generator.lrone.ParserGenerator.createParseTable(input.grammar(), input.start(), input.eof(),
+                com.noahmpauls.compilers.generator.lrone.ParserGenerator.Mode.CANONICAL, input.precedence(), GenerationListener.NONE, 1);
+    }
+}
@@ -0,0 +1,73 @@
+package com.noahmpauls.compilers.generator.benchmarks;
+
+import com.noahmpauls.compilers.generator.Action;
+import com.noahmpauls.compilers.generator.IntParseTable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shift-reduce parser over a table held as nested maps of {@link Action}s,
+ *  the layout of {@link com.noahmpauls.compilers.generator.ParseTable#toMap()}.
+ *  The keys are boxed symbol numbers rather than enum constants, so any
+ *  grammar can be used; the state stack is an int array as in
+ *  {@link com.noahmpauls.compilers.generator.LRParser}, so only the table
+ *  lookups differ.
+ */
+class MapParser implements BenchmarkParser {
+
+    private final Map<Integer, Map<Integer, Action>> table;
+    private final int eof;
+    private final int[] ruleSize;
+    private final int[] ruleStart;
+    private int[] stack = new int[64];
+
+    MapParser(final IntParseTable table) {
+        this.table = new HashMap<>();
+        for (int i = 0; i < table.stateCount(); i++) {
+            Map<Integer, Action> row = new HashMap<>();
+            for (int symbol : table.terminalSymbols())
+                row.put(symbol, IntParseTable.unpack(table.action(i, symbol)));
+            for (int symbol : table.nonTerminalSymbols())
+                row.put(symbol, IntParseTable.unpack(table.action(i, symbol)));
+            this.table.put(i, row);
+        }
+        this.eof = table.eofSymbol();
+        this.ruleSize = new int[table.ruleCount()];
+        this.ruleStart = new int[table.ruleCount()];
+        for (int r = 0; r < table.ruleCount(); r++) {
+            ruleSize[r] = table.ruleSize(r);
+            ruleStart[r] = table.ruleStart(r);
+        }
+    }
+
+    @Override
+    public boolean parse(final int[] tokens, final int length) {
+        int top = 0;
+        stack[0] = 0;
+        for (int i = 0; i <= length; i++) {
+            int lookahead = i < length ? tokens[i] : eof;
+            while (true) {
+                Action action = table.get(stack[top]).get(lookahead);
+                if (action.type == Action.ActionType.SHIFT) {
+                    if (++top == stack.length)
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    stack[top] = action.value;
+                    break;
+                } else if (action.type == Action.ActionType.REDUCE) {
+                    top -= ruleSize[action.value];
+                    int next = table.get(stack[top]).get(ruleStart[action.value]).value;
+                    if (++top == stack.length)
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    stack[top] = next;
+                } else {
+                    // as in LRParser, tokens after the end-of-input token are an error
+                    return action.type == Action.ActionType.ACCEPT && i >= length - 1;
+                }
+            }
+            if (lookahead == eof) break;
+        }
+        return false;
+    }
+}
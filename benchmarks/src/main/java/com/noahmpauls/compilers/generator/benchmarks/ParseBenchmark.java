@@ -0,0 +1,78 @@
+package com.noahmpauls.compilers.generator.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse throughput over large inputs for each table representation. Each
+ *  operation parses random sentences totalling at least inputTokens
+ *  tokens (4 bytes each as symbol numbers), and the tokens counter reports
+ *  tokens per second. Bytes allocated per token are the GC profiler's
+ *  gc.alloc.rate.norm divided by the tokens per operation printed at setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Param({ "concrete-expr", "precedence-expr", "s3" })
+    public String grammarName;
+
+    @Param({ "map", "dense", "compressed", "mapped", "generated" })
+    public String representation;
+
+    @Param({ "1000000" })
+    public int inputTokens;
+
+    private BenchmarkParser parser;
+    private List<int[]> sentences;
+
+    /**
+     * The tokens parsed, reported as a rate alongside the operations.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Tokens {
+        public long tokens;
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        BenchmarkGrammar input = BenchmarkGrammar.named(grammarName);
+        parser = BenchmarkParser.of(representation, input);
+
+        // grammars with little recursion give short sentences, so take as
+        // many as it takes to reach the input size
+        Random random = new Random(42);
+        sentences = new ArrayList<>();
+        long total = 0;
+        while (total < inputTokens) {
+            int[] sentence = input.sentence(inputTokens, random);
+            sentences.add(sentence);
+            total += sentence.length;
+        }
+        for (int[] sentence : sentences) {
+            if (!parser.parse(sentence, sentence.length))
+                throw new IllegalStateException(representation + " rejects a sentence of " + grammarName);
+        }
+        System.out.println(total + " tokens in " + sentences.size() + " sentences per operation");
+    }
+
+    @Benchmark
+    public boolean parse(final Tokens counter) {
+        boolean accepted = true;
+        for (int[] sentence : sentences) {
+            accepted &= parser.parse(sentence, sentence.length);
+            counter.tokens += sentence.length;
+        }
+        return accepted;
+    }
+}
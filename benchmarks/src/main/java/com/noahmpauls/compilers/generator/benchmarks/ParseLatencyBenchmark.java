@@ -0,0 +1,54 @@
+package com.noahmpauls.compilers.generator.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of parsing one small input for each table representation.
+ *  Sample mode reports percentiles of the time per parse; each invocation
+ *  parses the next of a fixed set of random sentences of about inputTokens
+ *  tokens.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseLatencyBenchmark {
+
+    private static final int SENTENCES = 1024;
+
+    @Param({ "concrete-expr", "precedence-expr", "s3" })
+    public String grammarName;
+
+    @Param({ "map", "dense", "compressed", "mapped", "generated" })
+    public String representation;
+
+    @Param({ "16", "256" })
+    public int inputTokens;
+
+    private BenchmarkParser parser;
+    private int[][] sentences;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        BenchmarkGrammar input = BenchmarkGrammar.named(grammarName);
+        parser = BenchmarkParser.of(representation, input);
+        Random random = new Random(42);
+        sentences = new int[SENTENCES][];
+        for (int i = 0; i < SENTENCES; i++)
+            sentences[i] = input.sentence(inputTokens, random);
+    }
+
+    @Benchmark
+    public boolean parse() {
+        int[] sentence = sentences[next];
+        next = (next + 1) % SENTENCES;
+        return parser.parse(sentence, sentence.length);
+    }
+}
@@ -0,0 +1,40 @@
+package com.noahmpauls.compilers.generator.benchmarks;
+
+import com.noahmpauls.compilers.generator.GenerationListener;
+import com.noahmpauls.compilers.generator.IntParseTable;
+import com.noahmpauls.compilers.generator.lrone.ParserGenerator;
+import org.openjdk.jmh.annotations.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Canonical LR(1) generation over an increasing number of threads. The
+ *  table is the same for every thread count, so the scores compare only the
+ *  frontier-parallel state construction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScalingBenchmark {
+
+    @Param({ "ladder-64", "synthetic-200" })
+    public String grammarName;
+
+    @Param({ "1", "2", "4", "8" })
+    public int threads;
+
+    private BenchmarkGrammar input;
+
+    @Setup
+    public void setup() {
+        input = BenchmarkGrammar.named(grammarName);
+    }
+
+    @Benchmark
+    public IntParseTable lr1Table() {
+        return ParserGenerator.createParseTable(input.grammar(), input.start(), input.eof(),
+                ParserGenerator.Mode.CANONICAL, GenerationListener.NONE, threads);
+    }
+}
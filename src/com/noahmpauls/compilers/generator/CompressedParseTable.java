@@ -0,0 +1,338 @@
+package com.noahmpauls.compilers.generator;
+
+import com.noahmpauls.compilers.generator.lrone.ParserGenerator;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * A parse table compressed with the scheme used by yacc and bison:
+ *
+ * <ul>
+ *     <li>each state has a default reduction, the reduce that fills most of
+ *      its row, which also stands in for the row's error cells;</li>
+ *     <li>each non-terminal has a default goto, the target that fills most
+ *      of its column;</li>
+ *     <li>the remaining actions (by row) and gotos (by column) are overlaid
+ *      into one comb vector by row displacement: an entry for row r and
+ *      column c lives at next[base[r] + c], and check holds the row that
+ *      owns each slot.</li>
+ * </ul>
+ *
+ * Lookups are O(1): one probe into the comb vector and, on a miss, the
+ *  row's or column's default. Using default reductions in place of errors
+ *  only delays a syntax error by some reductions; it is still reported on
+ *  the same lookahead. The exception is an error made by a nonassociative
+ *  precedence tie, where the state could reduce and so would accept input
+ *  the precedence forbids; those cells are kept in the comb vector as
+ *  explicit errors.
+ */
+public class CompressedParseTable implements PackedTable {
+
+    public static void main(String[] args) {
+        Grammar<ConcreteType> grammar = new Grammar<>(Arrays.asList(
+                new Production<>(ConcreteType.START,
+                        new ConcreteType[]{ ConcreteType.EXPR, ConcreteType.EOF }),
+                new Production<>(ConcreteType.EXPR,
+                        new ConcreteType[]{ ConcreteType.LITERAL, ConcreteType.P_EXPR }),
+                new Production<>(ConcreteType.P_EXPR,
+                        new ConcreteType[]{ ConcreteType.BIN_OP, ConcreteType.P_EXPR}),
+                new Production<>(ConcreteType.P_EXPR,
+                        new ConcreteType[]{ }),
+                new Production<>(ConcreteType.EXPR,
+                        new ConcreteType[]{ ConcreteType.MINUS, ConcreteType.EXPR, ConcreteType.P_EXPR}),
+                new Production<>(ConcreteType.EXPR,
+                        new ConcreteType[]{ ConcreteType.L_PAREN, ConcreteType.EXPR, ConcreteType.R_PAREN, ConcreteType.P_EXPR }),
+                new Production<>(ConcreteType.BIN_OP,
+                        new ConcreteType[]{ ConcreteType.ARITH_OP }),
+                new Production<>(ConcreteType.ARITH_OP,
+                        new ConcreteType[]{ ConcreteType.PLUS })
+        ));
+
+        ParseTable<ConcreteType> table = ParserGenerator.createParseTable(grammar, 0, ConcreteType.EOF);
+        CompressedParseTable compressed = new CompressedParseTable(table);
+        System.out.println("dense: " + table.stateCount() * ConcreteType.values().length + " ints, compressed: " + compressed.size() + " ints");
+
+        LRParser<ConcreteType> parser = new LRParser<>(compressed);
+        System.out.println(parser.parse(new ConcreteType[]{ ConcreteType.L_PAREN, ConcreteType.LITERAL, ConcreteType.R_PAREN, ConcreteType.PLUS }));
+        System.out.println(parser.parse(new ConcreteType[]{ ConcreteType.LITERAL, ConcreteType.R_PAREN }) + " at " + parser.errorPosition());
+
+        // the error a nonassociative + leaves in a state that reduces by
+        // E -> E + E must not be replaced by that default reduce
+        Grammar<ConcreteType> sum = new Grammar<>(Arrays.asList(
+                new Production<>(ConcreteType.START, new ConcreteType[]{ ConcreteType.EXPR, ConcreteType.EOF }),
+                new Production<>(ConcreteType.EXPR, new ConcreteType[]{ ConcreteType.EXPR, ConcreteType.PLUS, ConcreteType.EXPR }),
+                new Production<>(ConcreteType.EXPR, new ConcreteType[]{ ConcreteType.LITERAL })
+        ));
+        ParseTable<ConcreteType> nonAssoc = com.noahmpauls.compilers.generator.lalr.ParserGenerator.createParseTable(
+                sum, 0, ConcreteType.EOF, new Precedence().nonAssoc(Arrays.asList(ConcreteType.PLUS)));
+        ConcreteType[] chain = { ConcreteType.LITERAL, ConcreteType.PLUS, ConcreteType.LITERAL, ConcreteType.PLUS, ConcreteType.LITERAL, ConcreteType.EOF };
+        System.out.println(new LRParser<ConcreteType>(nonAssoc).parse(chain) + " " + new LRParser<ConcreteType>(new CompressedParseTable(nonAssoc)).parse(chain));
+    }
+
+    private final int stateCount;
+    private final int eof;
+    // symbol ordinal -> name of the symbol
+    private final String[] symbolNames;
+    // rule number -> length of the rule's rhs / ordinal of the rule's lhs
+    private final int[] ruleSize;
+    private final int[] ruleStart;
+
+    // state -> packed default action, a reduce or ERROR
+    private final int[] defaultAction;
+    // non-terminal ordinal -> default goto state, or -1 for none
+    private final int[] defaultGoto;
+
+    // state -> displacement of its action row in the comb vector
+    private final int[] actionBase;
+    // non-terminal ordinal -> displacement of its goto column
+    private final int[] gotoBase;
+    // the comb vector: next holds packed actions or goto states, and check
+    // holds the owner of each slot; state s owns its action slots and
+    // non-terminal A owns its goto slots as stateCount + A
+    private final int[] next;
+    private final int[] check;
+
+    public CompressedParseTable(final IntParseTable table) {
+        this.stateCount = table.stateCount();
+        this.eof = table.eofSymbol();
+        this.ruleSize = new int[table.ruleCount()];
+        this.ruleStart = new int[table.ruleCount()];
+        for (int i = 0; i < table.ruleCount(); i++) {
+            ruleSize[i] = table.ruleSize(i);
+            ruleStart[i] = table.ruleStart(i);
+        }
+
+        int[] terminals = table.terminalSymbols();
+        int[] nonTerminals = table.nonTerminalSymbols();
+        final int width = table.symbolCount();
+        symbolNames = new String[width];
+        for (int i = 0; i < width; i++)
+            symbolNames[i] = table.symbolName(i);
+
+        // pick defaults and collect the entries that differ from them; each
+        // row is listed as (column, value) pairs
+        defaultAction = new int[stateCount];
+        int[][] actionRows = new int[stateCount][];
+        for (int s = 0; s < stateCount; s++) {
+            Map<Integer, Integer> reduces = new HashMap<>();
+            for (int t : terminals) {
+                int cell = table.action(s, t);
+                if (ParseTable.kind(cell) == ParseTable.REDUCE)
+                    reduces.merge(cell, 1, Integer::sum);
+            }
+            defaultAction[s] = mostCommon(reduces, ParseTable.ERROR);
+
+            List<Integer> row = new ArrayList<>();
+            for (int t : terminals) {
+                int cell = table.action(s, t);
+                if ((cell != ParseTable.ERROR || table.isPrecedenceError(s, t)) && cell != defaultAction[s]) {
+                    row.add(t);
+                    row.add(cell);
+                }
+            }
+            actionRows[s] = toArray(row);
+        }
+
+        defaultGoto = new int[width];
+        Arrays.fill(defaultGoto, -1);
+        int[][] gotoColumns = new int[width][];
+        for (int a : nonTerminals) {
+            Map<Integer, Integer> targets = new HashMap<>();
+            for (int s = 0; s < stateCount; s++) {
+                int cell = table.action(s, a);
+                if (ParseTable.kind(cell) == ParseTable.GOTO)
+                    targets.merge(ParseTable.target(cell), 1, Integer::sum);
+            }
+            defaultGoto[a] = mostCommon(targets, -1);
+
+            List<Integer> column = new ArrayList<>();
+            for (int s = 0; s < stateCount; s++) {
+                int cell = table.action(s, a);
+                if (ParseTable.kind(cell) == ParseTable.GOTO && ParseTable.target(cell) != defaultGoto[a]) {
+                    column.add(s);
+                    column.add(ParseTable.target(cell));
+                }
+            }
+            gotoColumns[a] = toArray(column);
+        }
+
+        // place the longest vectors first, each at the lowest displacement
+        // where all of its slots are free
+        List<int[]> vectors = new ArrayList<>();
+        List<Integer> owners = new ArrayList<>();
+        for (int s = 0; s < stateCount; s++) {
+            vectors.add(actionRows[s]);
+            owners.add(s);
+        }
+        for (int a : nonTerminals) {
+            vectors.add(gotoColumns[a]);
+            owners.add(stateCount + a);
+        }
+        Integer[] order = new Integer[vectors.size()];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+        Arrays.sort(order, (x, y) -> vectors.get(y).length - vectors.get(x).length);
+
+        actionBase = new int[stateCount];
+        gotoBase = new int[width];
+        int[] placedNext = new int[64];
+        int[] placedCheck = new int[64];
+        Arrays.fill(placedCheck, -1);
+        int used = 0;
+        for (int v : order) {
+            int[] vector = vectors.get(v);
+            int base = 0;
+            if (vector.length > 0) {
+                while (!fits(placedCheck, vector, base))
+                    base++;
+                int end = base + vector[vector.length - 2] + 1;
+                if (end > placedNext.length) {
+                    int grown = Math.max(end, placedNext.length * 2);
+                    placedNext = Arrays.copyOf(placedNext, grown);
+                    int oldLength = placedCheck.length;
+                    placedCheck = Arrays.copyOf(placedCheck, grown);
+                    Arrays.fill(placedCheck, oldLength, grown, -1);
+                }
+                for (int i = 0; i < vector.length; i += 2) {
+                    placedNext[base + vector[i]] = vector[i + 1];
+                    placedCheck[base + vector[i]] = owners.get(v);
+                }
+                used = Math.max(used, end);
+            }
+
+            int owner = owners.get(v);
+            if (owner < stateCount)
+                actionBase[owner] = base;
+            else
+                gotoBase[owner - stateCount] = base;
+        }
+
+        // pad the vector so that any base plus any column is in bounds
+        int length = used + Math.max(width, stateCount);
+        next = Arrays.copyOf(placedNext, length);
+        check = Arrays.copyOf(placedCheck, length);
+        if (placedCheck.length < length)
+            Arrays.fill(check, placedCheck.length, length, -1);
+    }
+
+    private static boolean fits(final int[] check, final int[] vector, final int base) {
+        for (int i = 0; i < vector.length; i += 2) {
+            int slot = base + vector[i];
+            if (slot < check.length && check[slot] != -1) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the key with the highest count, the smallest such key on a
+     *  tie, or none if there are no keys
+     */
+    static int mostCommon(final Map<Integer, Integer> counts, final int none) {
+        int best = none;
+        int bestCount = 0;
+        for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() > bestCount || (entry.getValue() == bestCount && entry.getKey() < best)) {
+                best = entry.getKey();
+                bestCount = entry.getValue();
+            }
+        }
+        return best;
+    }
+
+    private static int[] toArray(final List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++)
+            array[i] = list.get(i);
+        return array;
+    }
+
+    @Override
+    public int action(final int state, final int terminal) {
+        int slot = actionBase[state] + terminal;
+        return check[slot] == state ? next[slot] : defaultAction[state];
+    }
+
+    @Override
+    public int goTo(final int state, final int nonTerminal) {
+        int slot = gotoBase[nonTerminal] + state;
+        return check[slot] == stateCount + nonTerminal ? next[slot] : defaultGoto[nonTerminal];
+    }
+
+    @Override
+    public int eofSymbol() {
+        return eof;
+    }
+
+    @Override
+    public int ruleCount() {
+        return ruleSize.length;
+    }
+
+    @Override
+    public int ruleSize(final int rule) {
+        return ruleSize[rule];
+    }
+
+    @Override
+    public int ruleStart(final int rule) {
+        return ruleStart[rule];
+    }
+
+    /**
+     * @return the number of states in the table
+     */
+    public int stateCount() {
+        return stateCount;
+    }
+
+    /**
+     * Write the table in the binary format read by {@link MappedParseTable}.
+     *  All ints are big-endian, in this order:
+     *
+     * <pre>
+     *  magic, version, symbolCount, stateCount, ruleCount, eof, vectorLength
+     *  ruleSize[ruleCount], ruleStart[ruleCount]
+     *  defaultAction[stateCount], actionBase[stateCount]
+     *  defaultGoto[symbolCount], gotoBase[symbolCount]
+     *  next[vectorLength], check[vectorLength]
+     * </pre>
+     *
+     * followed by the name of each symbol in ordinal order, as a byte length
+     *  and UTF-8 bytes.
+     *
+     * @param file the file to create or replace
+     * @throws IOException if the file cannot be written
+     */
+    public void write(final Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MappedParseTable.MAGIC);
+            out.writeInt(MappedParseTable.VERSION);
+            out.writeInt(symbolNames.length);
+            out.writeInt(stateCount);
+            out.writeInt(ruleSize.length);
+            out.writeInt(eof);
+            out.writeInt(next.length);
+            for (int[] array : Arrays.asList(ruleSize, ruleStart, defaultAction, actionBase, defaultGoto, gotoBase, next, check)) {
+                for (int value : array)
+                    out.writeInt(value);
+            }
+            for (String name : symbolNames) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * @return the number of ints the table's arrays hold
+     */
+    public int size() {
+        return defaultAction.length + defaultGoto.length + actionBase.length + gotoBase.length
+                + next.length + check.length;
+    }
+}
@@ -0,0 +1,134 @@
+package com.noahmpauls.compilers.generator;
+
+import java.util.Objects;
+
+/**
+ * Two actions put into the same parse table cell that precedence did not
+ *  decide between. As in yacc, the table keeps the shift (or accept) of a
+ *  shift/reduce conflict and the reduce by the rule listed first of a
+ *  reduce/reduce conflict; declare precedence for the terminal and rule to
+ *  choose a reduce over a shift instead.
+ */
+public class Conflict {
+
+    private final int state;
+    private final int symbol;
+    private final String symbolName;
+    private final Action existing;
+    private final Action added;
+    private final boolean introducedByMerge;
+
+    public Conflict(final int state, final int symbol, final String symbolName, final int existing, final int added) {
+        this(state, symbol, symbolName, existing, added, false);
+    }
+
+    /**
+     * @param state the state (row) of the cell
+     * @param symbol the number of the terminal (column) of the cell
+     * @param symbolName the name of the terminal
+     * @param existing the packed action the cell held
+     * @param added the packed action put into the cell
+     * @param introducedByMerge whether the conflict exists only because
+     *                          LR(1) states with the same core were merged
+     */
+    public Conflict(final int state, final int symbol, final String symbolName, final int existing, final int added,
+                    final boolean introducedByMerge) {
+        this.state = state;
+        this.symbol = symbol;
+        this.symbolName = symbolName;
+        this.existing = IntParseTable.unpack(existing);
+        this.added = IntParseTable.unpack(added);
+        this.introducedByMerge = introducedByMerge;
+    }
+
+    public int state() {
+        return state;
+    }
+
+    public int symbol() {
+        return symbol;
+    }
+
+    public String symbolName() {
+        return symbolName;
+    }
+
+    /**
+     * @return the action the cell held before the conflict
+     */
+    public Action existing() {
+        return existing;
+    }
+
+    /**
+     * @return the action put into the cell that conflicted with it
+     */
+    public Action added() {
+        return added;
+    }
+
+    /**
+     * @return the action the table keeps: the one that is not a reduce, or
+     *  of two reduces the one by the lower-numbered rule
+     */
+    public Action kept() {
+        if (existing.type != Action.ActionType.REDUCE)
+            return existing;
+        if (added.type != Action.ActionType.REDUCE)
+            return added;
+        return existing.value <= added.value ? existing : added;
+    }
+
+    /**
+     * @return true if one action is a shift and the other a reduce
+     */
+    public boolean isShiftReduce() {
+        return existing.type != added.type
+                && (existing.type == Action.ActionType.SHIFT || added.type == Action.ActionType.SHIFT)
+                && (existing.type == Action.ActionType.REDUCE || added.type == Action.ActionType.REDUCE);
+    }
+
+    /**
+     * @return true if both actions reduce, by different rules
+     */
+    public boolean isReduceReduce() {
+        return existing.type == Action.ActionType.REDUCE && added.type == Action.ActionType.REDUCE;
+    }
+
+    /**
+     * @return true for a reduce/reduce conflict that none of the canonical
+     *  LR(1) states merged into the conflicting LALR(1) state had, so the
+     *  grammar is LR(1) but not LALR(1)
+     */
+    public boolean isIntroducedByMerge() {
+        return introducedByMerge;
+    }
+
+    @Override
+    public boolean equals(Object that) {
+        return that instanceof Conflict && sameValue((Conflict) that);
+    }
+
+    private boolean sameValue(Conflict that) {
+        return this.state == that.state
+                && this.symbol == that.symbol
+                && this.existing.equals(that.existing)
+                && this.added.equals(that.added)
+                && this.introducedByMerge == that.introducedByMerge;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(state, symbol, existing, added, introducedByMerge);
+    }
+
+    @Override
+    public String toString() {
+        String kind = isShiftReduce() ? "shift/reduce" : isReduceReduce() ? "reduce/reduce" : existing.type.name().toLowerCase() + "/" + added.type.name().toLowerCase();
+        if (introducedByMerge)
+            kind += " conflict introduced by LALR merge";
+        else
+            kind += " conflict";
+        return kind + " for state " + state + " symbol " + symbolName + ": " + existing + " and " + added + ", keeping " + kept();
+    }
+}
@@ -0,0 +1,134 @@
+package com.noahmpauls.compilers.generator;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Receives the events of one run of a parser generator. Every method does
+ *  nothing by default, so a listener overrides only what it needs;
+ *  {@link GenerationMetrics} collects them all into counters.
+ *
+ * Events may be reported from several threads at once.
+ */
+public interface GenerationListener {
+
+    /**
+     * A listener that ignores every event.
+     */
+    GenerationListener NONE = new GenerationListener() {
+    };
+
+    /**
+     * The timed phases of a run. Not every generator has every phase.
+     */
+    enum Phase {
+        /** building the states and their transitions */
+        AUTOMATON,
+        /** computing LALR(1) lookaheads on the LR(0) automaton */
+        LOOKAHEADS,
+        /** merging LR(1) states with the same cores into LALR(1) states */
+        MERGE,
+        /** filling the parse table */
+        TABLE
+    }
+
+    /**
+     * Called when a phase of the run ends.
+     *
+     * @param phase the phase
+     * @param nanos the wall time of the phase
+     */
+    default void phaseTime(final Phase phase, final long nanos) {
+    }
+
+    /**
+     * Called when the run ends.
+     *
+     * @param nanos the wall time of the whole run
+     */
+    default void generationTime(final long nanos) {
+    }
+
+    /**
+     * Called when a state is added to the automaton.
+     *
+     * @param state the state's number
+     * @param items the number of items in the state; for LR(1), the number
+     *              of distinct cores, each with its set of lookaheads
+     */
+    default void stateCreated(final int state, final int items) {
+    }
+
+    /**
+     * Called when the GOTOs of a state have been computed.
+     *
+     * @param count the number of GOTO kernels computed, one per symbol
+     *              after a dot
+     */
+    default void goTos(final int count) {
+    }
+
+    /**
+     * Called when a GOTO kernel is the kernel of an existing state, so no
+     *  state is created for it.
+     */
+    default void duplicateState() {
+    }
+
+    /**
+     * Called when a closure is computed.
+     *
+     * @param iterations the number of items the closure visited
+     */
+    default void closureComputed(final int iterations) {
+    }
+
+    /**
+     * Called when a closure is taken from a cache instead of computed.
+     */
+    default void closureHit() {
+    }
+
+    /**
+     * @return true to receive {@link #state(int, List)} for every state of
+     *  the finished automaton; the item strings are only built if so
+     */
+    default boolean wantsStates() {
+        return false;
+    }
+
+    /**
+     * Called for every state of the finished automaton, if
+     *  {@link #wantsStates()}.
+     *
+     * @param state the state's number
+     * @param items the state's items, written as "A -> a . b" and, for
+     *              LR(1), followed by one lookahead in parentheses
+     */
+    default void state(final int state, final List<String> items) {
+    }
+
+    /**
+     * Create a listener that prints every state of the automaton and its
+     *  items.
+     *
+     * @param out the stream to print to
+     * @return the listener
+     */
+    static GenerationListener printStates(final PrintStream out) {
+        return new GenerationListener() {
+            @Override
+            public boolean wantsStates() {
+                return true;
+            }
+
+            @Override
+            public void state(final int state, final List<String> items) {
+                out.println(state + " ---------------");
+                for (String item : items)
+                    out.println("  [" + item + "]");
+                out.println("");
+            }
+        };
+    }
+}
@@ -0,0 +1,212 @@
+package com.noahmpauls.compilers.generator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters collected during one run of a parser generator. A fresh instance
+ *  should be passed to each run. Counters may be updated from several
+ *  threads at once.
+ */
+public class GenerationMetrics implements GenerationListener {
+
+    // bucket b of the items-per-state histogram counts states with
+    // 2^b <= items < 2^(b + 1); bucket 0 also counts empty states
+    private static final int BUCKETS = 32;
+
+    private final LongAdder closureHits = new LongAdder();
+    private final LongAdder closureMisses = new LongAdder();
+    private final LongAdder closureIterations = new LongAdder();
+    private final LongAdder goTos = new LongAdder();
+    private final LongAdder duplicateStates = new LongAdder();
+    private final LongAdder states = new LongAdder();
+    private final LongAdder items = new LongAdder();
+    private final LongAccumulator maxStateItems = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray itemsHistogram = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(Phase.values().length);
+    private volatile long generationNanos;
+
+    /**
+     * Record a closure answered from the closure cache.
+     */
+    @Override
+    public void closureHit() {
+        closureHits.increment();
+    }
+
+    /**
+     * Record a closure that had to be computed.
+     */
+    @Override
+    public void closureComputed(final int iterations) {
+        closureMisses.increment();
+        closureIterations.add(iterations);
+    }
+
+    @Override
+    public void goTos(final int count) {
+        goTos.add(count);
+    }
+
+    @Override
+    public void duplicateState() {
+        duplicateStates.increment();
+    }
+
+    @Override
+    public void stateCreated(final int state, final int items) {
+        states.increment();
+        this.items.add(items);
+        maxStateItems.accumulate(items);
+        itemsHistogram.incrementAndGet(items == 0 ? 0 : 31 - Integer.numberOfLeadingZeros(items));
+    }
+
+    /**
+     * Record the wall time of a phase, adding to any time already recorded
+     *  for it.
+     */
+    @Override
+    public void phaseTime(final Phase phase, final long nanos) {
+        phaseNanos.addAndGet(phase.ordinal(), nanos);
+    }
+
+    /**
+     * Record the wall time of the whole run.
+     */
+    @Override
+    public void generationTime(final long nanos) {
+        generationNanos = nanos;
+    }
+
+    public long closureHits() {
+        return closureHits.sum();
+    }
+
+    public long closureMisses() {
+        return closureMisses.sum();
+    }
+
+    /**
+     * @return the fraction of closures answered from the cache, or 0 if no
+     *  closures were requested
+     */
+    public double closureHitRate() {
+        long hits = closureHits();
+        long total = hits + closureMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * @return the number of items visited by all computed closures
+     */
+    public long closureIterations() {
+        return closureIterations.sum();
+    }
+
+    /**
+     * @return the number of GOTO kernels computed
+     */
+    public long goToCount() {
+        return goTos.sum();
+    }
+
+    /**
+     * @return the number of GOTO kernels that matched an existing state
+     */
+    public long dedupHits() {
+        return duplicateStates.sum();
+    }
+
+    /**
+     * @return the number of states created
+     */
+    public long stateCount() {
+        return states.sum();
+    }
+
+    /**
+     * @return the number of items held by all states created. States are
+     *  kept until the run ends, so this is the most items held at once.
+     */
+    public long peakItems() {
+        return items.sum();
+    }
+
+    /**
+     * @return the number of items in the largest state
+     */
+    public long maxStateItems() {
+        return maxStateItems.get();
+    }
+
+    /**
+     * @return the number of states by size, where entry b counts the states
+     *  with 2^b up to 2^(b + 1) - 1 items; the last entry is the last
+     *  non-zero bucket
+     */
+    public long[] itemsHistogram() {
+        int length = BUCKETS;
+        while (length > 0 && itemsHistogram.get(length - 1) == 0)
+            length--;
+        long[] histogram = new long[length];
+        for (int b = 0; b < length; b++)
+            histogram[b] = itemsHistogram.get(b);
+        return histogram;
+    }
+
+    /**
+     * @return the wall time of a phase in nanoseconds, or 0 if the run had
+     *  no such phase
+     */
+    public long phaseNanos(final Phase phase) {
+        return phaseNanos.get(phase.ordinal());
+    }
+
+    /**
+     * @return the wall time of the run in nanoseconds
+     */
+    public long generationNanos() {
+        return generationNanos;
+    }
+
+    /**
+     * Flatten the metrics into named values, e.g. for build telemetry. Keys
+     *  are stable: phase times are "phase.automaton.nanos" and so on, and
+     *  histogram buckets "items.2^b" for each bucket b.
+     *
+     * @return the metrics, in a fixed order
+     */
+    public Map<String, Long> toMap() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        values.put("generation.nanos", generationNanos());
+        for (Phase phase : Phase.values())
+            values.put("phase." + phase.name().toLowerCase() + ".nanos", phaseNanos(phase));
+        values.put("states", stateCount());
+        values.put("items.peak", peakItems());
+        values.put("items.max", maxStateItems());
+        long[] histogram = itemsHistogram();
+        for (int b = 0; b < histogram.length; b++)
+            values.put("items.2^" + b, histogram[b]);
+        values.put("closures.hits", closureHits());
+        values.put("closures.misses", closureMisses());
+        values.put("closures.iterations", closureIterations());
+        values.put("goto.calls", goToCount());
+        values.put("goto.dedup", dedupHits());
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder phases = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            if (phaseNanos(phase) > 0)
+                phases.append(String.format(", %s %.1f ms", phase.name().toLowerCase(), phaseNanos(phase) / 1e6));
+        }
+        return String.format("generation %.1f ms%s, %d states, %d items (max %d per state), closures %d hit / %d miss (%.1f%% hit rate), %d closure iterations, %d gotos (%d dedup hits)",
+                generationNanos / 1e6, phases, stateCount(), peakItems(), maxStateItems(), closureHits(), closureMisses(),
+                100 * closureHitRate(), closureIterations(), goToCount(), dedupHits());
+    }
+}
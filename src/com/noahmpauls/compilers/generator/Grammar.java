@@ -2,6 +2,11 @@ package com.noahmpauls.compilers.generator;
 
 import java.util.*;
 
+/**
+ * A grammar over the constants of an enum. The rules and their analysis are
+ *  held by an {@link IntGrammar} over the constants' ordinals, which the
+ *  int accessors here read directly.
+ */
 public class Grammar<E extends Enum<E>> {
 
     public static void main(String[] args) {
@@ -15,6 +20,7 @@ public class Grammar<E extends Enum<E>> {
         ));
 
         System.out.println(grammar.first(Arrays.asList(S4.d, S4.a)));
+        System.out.println(grammar.follow(S4.Y));
     }
 
     private final List<Production<E>> rules;
@@ -25,11 +31,19 @@ public class Grammar<E extends Enum<E>> {
     private final Set<E> terminals;
     private final Set<E> nonTerminals;
 
-    private Map<E, Boolean> nullable;
-    private Map<E, Set<E>> first;
-    private Map<E, Set<E>> follow;
+    private final E[] symbolsByOrdinal;
+    // the same rules over symbol ordinals; every analysis is done there
+    private final IntGrammar ints;
 
     public Grammar(List<Production<E>> productions) {
+        this(productions, null);
+    }
+
+    /**
+     * @param ints the rules over symbol ordinals, or null to create them
+     *             from productions
+     */
+    private Grammar(List<Production<E>> productions, IntGrammar ints) {
         rules = new ArrayList<>(productions);
         starts = rulesToStarts(rules);
 
@@ -41,11 +55,81 @@ public class Grammar<E extends Enum<E>> {
         nonTerminals = new HashSet<>();
         collectSymbols();
 
-        nullable = new HashMap<>();
-        makeNullable();
-        first = new HashMap<>();
-        makeFirst();
-        follow = new HashMap<>();
+        symbolsByOrdinal = rules.isEmpty() ? null : rules.get(0).start().getDeclaringClass().getEnumConstants();
+        if (ints == null) {
+            SymbolTable table = rules.isEmpty() ? new SymbolTable() : SymbolTable.of(rules.get(0).start().getDeclaringClass());
+            ints = new IntGrammar(table, encode(rules));
+        }
+        this.ints = ints;
+    }
+
+    /**
+     * View a grammar over symbol numbers as a grammar over the constants of
+     *  an enum, where each symbol number is a constant's ordinal.
+     *
+     * @param ints the grammar to view
+     * @param symbols the enum type of the grammar symbols
+     * @param <E> the enum type of the grammar symbols
+     * @return a grammar sharing the analysis of ints
+     * @throws IllegalArgumentException if the grammar's symbol names are not
+     *  the enum's constant names in ordinal order
+     */
+    public static <E extends Enum<E>> Grammar<E> of(IntGrammar ints, Class<E> symbols) {
+        E[] constants = symbols.getEnumConstants();
+        if (ints.symbolCount() != constants.length)
+            throw new IllegalArgumentException("grammar has " + ints.symbolCount() + " symbols but " + symbols.getSimpleName() + " has " + constants.length);
+        for (E constant : constants) {
+            if (!constant.name().equals(ints.symbols().name(constant.ordinal())))
+                throw new IllegalArgumentException("grammar symbol " + constant.ordinal() + " is " + ints.symbols().name(constant.ordinal()) + ", not " + constant.name());
+        }
+
+        List<Production<E>> productions = new ArrayList<>();
+        for (int r = 0; r < ints.ruleCount(); r++) {
+            List<E> produces = new ArrayList<>();
+            for (int i = 0; i < ints.ruleSize(r); i++)
+                produces.add(constants[ints.ruleSymbol(r, i)]);
+            productions.add(new Production<>(constants[ints.ruleStart(r)], produces));
+        }
+        return new Grammar<>(productions, ints);
+    }
+
+    /**
+     * Create the grammar obtained by removing and adding productions. Rules
+     *  keep their relative order, with added rules numbered after the
+     *  surviving ones. See {@link IntGrammar#edit} for the analysis that is
+     *  reused.
+     *
+     * @param removed productions to remove; each removes one occurrence
+     * @param added productions to add
+     * @return the edited grammar
+     * @throws IllegalArgumentException if a removed production is not in
+     *  this grammar
+     */
+    public Grammar<E> edit(Collection<Production<E>> removed, Collection<Production<E>> added) {
+        List<Production<E>> productions = new ArrayList<>(rules);
+        for (Production<E> p : removed) {
+            if (!productions.remove(p))
+                throw new IllegalArgumentException("production " + p + " is not in this grammar");
+        }
+        productions.addAll(added);
+        return new Grammar<>(productions, ints.edit(encode(removed), encode(added)));
+    }
+
+    /**
+     * Encode productions as rules over symbol ordinals, each the ordinal of
+     *  the start symbol followed by the ordinals of the rhs.
+     */
+    private static <E extends Enum<E>> List<int[]> encode(Collection<Production<E>> productions) {
+        List<int[]> rules = new ArrayList<>();
+        for (Production<E> p : productions) {
+            List<E> produces = p.produces();
+            int[] rule = new int[produces.size() + 1];
+            rule[0] = p.start().ordinal();
+            for (int i = 0; i < produces.size(); i++)
+                rule[i + 1] = produces.get(i).ordinal();
+            rules.add(rule);
+        }
+        return rules;
     }
 
     private void createRuleLookup() {
@@ -64,75 +148,6 @@ public class Grammar<E extends Enum<E>> {
         terminals.removeAll(nonTerminals);
     }
 
-    private void makeNullable() {
-        Map<E, Boolean> nullable = new HashMap<>();
-        for (E symbol : symbols) {
-            nullable.put(symbol, false);
-        }
-
-        boolean updated = true;
-        while(updated) {
-            updated = false;
-            for (Production<E> p : rules) {
-                //System.out.println(p);
-                final E X = p.start();
-                final List<E> Y = p.produces();
-                final int k = Y.size();
-
-                // update nullable
-                boolean nullableX = true;
-                for (E symbol : Y) {
-                    nullableX &= nullable.get(symbol);
-                }
-                if (nullableX && !nullable.get(X)) {
-                    nullable.put(X, true);
-                    updated = true;
-                }
-            }
-        }
-
-        this.nullable = nullable;
-    }
-
-    private void makeFirst() {
-        Map<E, Set<E>> first = new HashMap<>();
-        for (E symbol : symbols) {
-            first.put(symbol, new HashSet<>());
-            if (terminals.contains(symbol)) {
-                first.get(symbol).add(symbol);
-            }
-        }
-
-        boolean updated = true;
-        while(updated) {
-            updated = false;
-            for (Production<E> p : rules) {
-                //System.out.println(p);
-                final E X = p.start();
-                final List<E> Y = p.produces();
-                final int k = Y.size();
-
-                for (int i = 0; i < k; i++) {
-                    boolean prefixNullable = true;
-                    for (int j = 0; j < i; j++) {
-                        prefixNullable &= nullable.get(Y.get(j));
-                    }
-                    if (prefixNullable) {
-                        Set<E> newFirstX = new HashSet<>(first.get(X));
-                        newFirstX.addAll(first.get(Y.get(i)));
-                        //System.out.println(X.name() + "," + Y.get(i).name() + ": " + newFirstX);
-                        if (!newFirstX.equals(first.get(X))) {
-                            first.put(X, newFirstX);
-                            updated = true;
-                        }
-                    }
-                }
-            }
-        }
-
-        this.first = first;
-    }
-
     /**
      * Turn a list of productions into a mapping from symbols to all productions
      *  starting with the key symbol.
@@ -213,6 +228,23 @@ public class Grammar<E extends Enum<E>> {
         return new HashSet<>();
     }
 
+    /**
+     * Find whether a symbol can derive the empty string.
+     *
+     * @param symbol a terminal/non-terminal
+     * @return true if symbol is nullable
+     */
+    public boolean nullable(E symbol) {
+        return nullable(symbol.ordinal());
+    }
+
+    /**
+     * @return true if the symbol with the given ordinal is nullable
+     */
+    public boolean nullable(int symbol) {
+        return ints.nullable(symbol);
+    }
+
     /**
      * Find the set of terminals that can begin strings derived from gamma.
      *
@@ -220,14 +252,186 @@ public class Grammar<E extends Enum<E>> {
      * @return the set of terminals that can begin a string derived from gamma
      */
     public Set<E> first(List<E> gamma) {
-        Set<E> first = new HashSet<>();
+        BitSet bits = new BitSet(symbolCount());
         for (E symbol : gamma) {
-            first.addAll(this.first.get(symbol));
-            if (!nullable.get(symbol)) break;
+            addFirst(symbol.ordinal(), bits);
+            if (!nullable(symbol)) break;
         }
+
+        Set<E> first = new HashSet<>();
+        for (int t = bits.nextSetBit(0); t >= 0; t = bits.nextSetBit(t + 1))
+            first.add(symbolsByOrdinal[t]);
         return first;
     }
 
+    /**
+     * Find the set of terminals that can immediately follow a symbol in some
+     *  sentential form. The end of input is not added; grammars mark it with
+     *  an explicit symbol at the end of their start rule.
+     *
+     * @param symbol a terminal/non-terminal
+     * @return FOLLOW(symbol)
+     */
+    public Set<E> follow(E symbol) {
+        BitSet bits = new BitSet(symbolCount());
+        addFollow(symbol.ordinal(), bits);
+
+        Set<E> follow = new HashSet<>();
+        for (int t = bits.nextSetBit(0); t >= 0; t = bits.nextSetBit(t + 1))
+            follow.add(symbolsByOrdinal[t]);
+        return follow;
+    }
+
+    /**
+     * Add FOLLOW of the symbol with the given ordinal to a set of terminal
+     *  ordinals.
+     */
+    public void addFollow(int symbol, BitSet into) {
+        ints.addFollow(symbol, into);
+    }
+
+    /**
+     * Add FIRST of the symbol with the given ordinal to a set of terminal
+     *  ordinals.
+     */
+    public void addFirst(int symbol, BitSet into) {
+        ints.addFirst(symbol, into);
+    }
+
+    /**
+     * @return the grammar over symbol ordinals this grammar is a view of
+     */
+    public IntGrammar ints() {
+        return ints;
+    }
+
+    /**
+     * @return the number of symbols in the grammar's enum type, i.e. one more
+     *  than the largest symbol ordinal
+     */
+    public int symbolCount() {
+        return ints.symbolCount();
+    }
+
+    /**
+     * @return the symbol with the given ordinal
+     */
+    public E symbol(int ordinal) {
+        return symbolsByOrdinal[ordinal];
+    }
+
+    /**
+     * @return the number of rules in the grammar
+     */
+    public int ruleCount() {
+        return rules.size();
+    }
+
+    /**
+     * For rule # rule, S -> X:
+     *
+     * @return the ordinal of S
+     */
+    public int ruleStart(int rule) {
+        return ints.ruleStart(rule);
+    }
+
+    /**
+     * For rule # rule, S -> X:
+     *
+     * @return the number of symbols in X
+     */
+    public int ruleSize(int rule) {
+        return ints.ruleSize(rule);
+    }
+
+    /**
+     * For rule # rule, S -> X:
+     *
+     * @return the ordinal of the ith symbol of X
+     */
+    public int ruleSymbol(int rule, int i) {
+        return ints.ruleSymbol(rule, i);
+    }
+
+    /**
+     * @return the number of rules whose start symbol has the given ordinal;
+     *  zero exactly when the symbol is not a non-terminal
+     */
+    public int startRuleCount(int symbol) {
+        return ints.startRuleCount(symbol);
+    }
+
+    /**
+     * @return the rule number of the kth rule whose start symbol has the
+     *  given ordinal, in rule-number order
+     */
+    public int startRule(int symbol, int k) {
+        return ints.startRule(symbol, k);
+    }
+
+    /**
+     * For item A -> a.b, add FIRST(b) to a set of terminal ordinals.
+     *
+     * @param item the item number
+     * @param into the set to add to
+     */
+    public void addSuffixFirst(int item, BitSet into) {
+        ints.addSuffixFirst(item, into);
+    }
+
+    /**
+     * For item A -> a.b:
+     *
+     * @return true if b is nullable
+     */
+    public boolean suffixNullable(int item) {
+        return ints.suffixNullable(item);
+    }
+
+    /**
+     * @return the number of distinct LR(0) items over the grammar's rules
+     */
+    public int itemCount() {
+        return ints.itemCount();
+    }
+
+    /**
+     * Get the number of the LR(0) item for a rule with the dot before
+     *  position dot of its rhs. Items of the same rule are numbered
+     *  consecutively, so moving the dot right adds one to the item number.
+     *
+     * @param rule the rule number
+     * @param dot the position of the dot, from 0 to the rule's size
+     * @return the item number
+     */
+    public int item(int rule, int dot) {
+        return ints.item(rule, dot);
+    }
+
+    /**
+     * @return the rule number of an LR(0) item
+     */
+    public int itemRule(int item) {
+        return ints.itemRule(item);
+    }
+
+    /**
+     * @return the position of the dot in an LR(0) item
+     */
+    public int itemDot(int item) {
+        return ints.itemDot(item);
+    }
+
+    /**
+     * For item A -> a.Xb:
+     *
+     * @return the ordinal of X, or -1 if the dot is at the end of the rule
+     */
+    public int itemNext(int item) {
+        return ints.itemNext(item);
+    }
+
     @Override
     public String toString() {
         StringBuilder result = new StringBuilder("Grammar:");
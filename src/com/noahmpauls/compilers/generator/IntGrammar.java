@@ -0,0 +1,699 @@
+package com.noahmpauls.compilers.generator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * A grammar over dense int symbol numbers, with the names of the symbols in
+ *  a {@link SymbolTable}. Rules, LR(0) items and the nullable, FIRST and
+ *  FOLLOW analyses are all held in primitive arrays indexed by symbol, rule
+ *  and item number, so grammars can be built at runtime, e.g. read from a
+ *  file, and analysed without boxing. {@link Grammar} is a view of one of
+ *  these over the constants of an enum.
+ *
+ * A rule is given as an int array holding the number of its start symbol
+ *  followed by the numbers of its rhs symbols.
+ */
+public class IntGrammar {
+
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(args.length > 0 ? args[0] : "src/com/noahmpauls/compilers/generator/lrone/grammar.txt");
+        SymbolTable symbols = new SymbolTable();
+        int start = symbols.intern("START");
+        int eof = symbols.intern("EOF");
+        List<int[]> rules = new ArrayList<>();
+        rules.add(new int[]{ start, symbols.intern("EXPR"), eof });
+        rules.addAll(read(Files.readAllLines(file, StandardCharsets.UTF_8), symbols));
+
+        IntGrammar grammar = new IntGrammar(symbols, rules);
+        System.out.println(grammar);
+        for (int s = 0; s < grammar.symbolCount(); s++) {
+            BitSet first = new BitSet();
+            grammar.addFirst(s, first);
+            System.out.println(symbols.name(s) + (grammar.nullable(s) ? " nullable" : "") + " first " + grammar.names(first));
+        }
+    }
+
+    private final SymbolTable symbols;
+    private final int symbolCount;
+
+    // rule number -> number of the rule's lhs / numbers of its rhs symbols
+    private final int[] ruleStart;
+    private final int[][] ruleSymbols;
+    // for a grammar created by edit, the number of each rule in the grammar
+    // it was edited from, or -1 for added rules; null otherwise
+    private final int[] previousRule;
+    // rule numbers grouped by start symbol; the rules starting with symbol s
+    // are startRules[startOffsets[s]] up to startRules[startOffsets[s + 1]]
+    private int[] startOffsets;
+    private int[] startRules;
+    // LR(0) items are numbered densely: item itemBase[r] + d is rule r with
+    // the dot before position d of its rhs
+    private int[] itemBase;
+    private int[] itemRule;
+
+    // used[s] if symbol s occurs in some rule
+    private boolean[] used;
+    // nullable[s], first[s] and follow[s] for each symbol number s; first
+    // and follow hold terminal numbers
+    private boolean[] nullable;
+    private BitSet[] first;
+    private BitSet[] follow;
+    // FIRST and nullability of the rhs suffix after the dot of each LR(0)
+    // item, indexed by item number
+    private BitSet[] suffixFirst;
+    private boolean[] suffixNullable;
+
+    /**
+     * @param symbols the names of the symbols; symbols interned later are
+     *                not part of this grammar
+     * @param rules the rules, where indices correspond to rule numbers
+     */
+    public IntGrammar(final SymbolTable symbols, final List<int[]> rules) {
+        this(symbols, rules, null, null, null);
+    }
+
+    /**
+     * Create a grammar, reusing the nullability, FIRST sets and rule suffix
+     *  FIRST sets of a previous grammar wherever the rules that determine
+     *  them are unchanged.
+     *
+     * @param previous the grammar to reuse analysis from, or null to analyse
+     *                 every symbol
+     * @param previousRule the number of each rule in previous, or -1 for a
+     *                     rule not in previous
+     * @param changed the symbols whose rules differ from previous
+     */
+    private IntGrammar(final SymbolTable symbols, final List<int[]> rules,
+                       final IntGrammar previous, final int[] previousRule, final boolean[] changed) {
+        this.symbols = symbols;
+        this.symbolCount = symbols.size();
+        this.previousRule = previousRule;
+
+        ruleStart = new int[rules.size()];
+        ruleSymbols = new int[rules.size()][];
+        for (int r = 0; r < rules.size(); r++) {
+            int[] rule = rules.get(r);
+            if (rule.length == 0)
+                throw new IllegalArgumentException("rule " + r + " has no start symbol");
+            for (int symbol : rule) {
+                if (symbol < 0 || symbol >= symbolCount)
+                    throw new IllegalArgumentException("rule " + r + " has unknown symbol " + symbol);
+            }
+            ruleStart[r] = rule[0];
+            ruleSymbols[r] = Arrays.copyOfRange(rule, 1, rule.length);
+        }
+        internRules();
+
+        boolean[] affected = affectedSymbols(previous, changed);
+        makeNullable(previous, affected);
+        makeFirst(previous, affected);
+        makeSuffixFirst(previous, affected);
+        makeFollow();
+    }
+
+    /**
+     * Read rules written one per line as "A -> B C", where a rhs of
+     *  "[empty]" or nothing is the empty string. Blank lines are skipped.
+     *
+     * @param lines the lines to read
+     * @param symbols the table to intern symbol names into
+     * @return the rules, in the order read
+     * @throws IllegalArgumentException if a line is not a rule
+     */
+    public static List<int[]> read(final List<String> lines, final SymbolTable symbols) {
+        List<int[]> rules = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty()) continue;
+            String[] sides = line.split("->", -1);
+            String[] start = sides[0].trim().split("\\s+");
+            if (sides.length != 2 || start.length != 1 || start[0].isEmpty())
+                throw new IllegalArgumentException("line " + (i + 1) + " is not a rule: " + line);
+
+            List<Integer> rule = new ArrayList<>();
+            rule.add(symbols.intern(start[0]));
+            for (String name : sides[1].trim().split("\\s+")) {
+                if (!name.isEmpty() && !name.equals("[empty]"))
+                    rule.add(symbols.intern(name));
+            }
+            int[] packed = new int[rule.size()];
+            for (int k = 0; k < packed.length; k++)
+                packed[k] = rule.get(k);
+            rules.add(packed);
+        }
+        return rules;
+    }
+
+    /**
+     * Create the grammar obtained by removing and adding rules. Rules keep
+     *  their relative order, with added rules numbered after the surviving
+     *  ones.
+     *
+     * Only the nullability and FIRST sets of non-terminals whose rules
+     *  changed, or that derive a string containing such a non-terminal, are
+     *  recomputed; the rest are taken from this grammar. FOLLOW sets depend
+     *  on every occurrence of a symbol and are always recomputed.
+     *
+     * @param removed rules to remove; each removes the first remaining
+     *                occurrence of an equal rule
+     * @param added rules to add
+     * @return the edited grammar
+     * @throws IllegalArgumentException if a removed rule is not in this
+     *  grammar
+     */
+    public IntGrammar edit(final List<int[]> removed, final List<int[]> added) {
+        Map<List<Integer>, Integer> removals = new HashMap<>();
+        for (int[] rule : removed)
+            removals.merge(key(rule), 1, Integer::sum);
+
+        boolean[] changed = new boolean[symbols.size()];
+        List<int[]> rules = new ArrayList<>();
+        List<Integer> previousRules = new ArrayList<>();
+        for (int r = 0; r < ruleCount(); r++) {
+            List<Integer> key = key(rule(r));
+            int count = removals.getOrDefault(key, 0);
+            if (count > 0) {
+                removals.put(key, count - 1);
+                changed[ruleStart[r]] = true;
+                continue;
+            }
+            rules.add(rule(r));
+            previousRules.add(r);
+        }
+        for (Map.Entry<List<Integer>, Integer> removal : removals.entrySet()) {
+            if (removal.getValue() > 0)
+                throw new IllegalArgumentException("rule " + removal.getKey() + " is not in this grammar");
+        }
+        for (int[] rule : added) {
+            rules.add(rule);
+            previousRules.add(-1);
+            if (rule.length > 0 && rule[0] >= 0 && rule[0] < changed.length)
+                changed[rule[0]] = true;
+        }
+
+        int[] previousRule = new int[previousRules.size()];
+        for (int r = 0; r < previousRule.length; r++)
+            previousRule[r] = previousRules.get(r);
+        return new IntGrammar(symbols, rules, this, previousRule, changed);
+    }
+
+    private static List<Integer> key(final int[] rule) {
+        List<Integer> key = new ArrayList<>(rule.length);
+        for (int symbol : rule)
+            key.add(symbol);
+        return key;
+    }
+
+    private void internRules() {
+        final int ruleCount = ruleStart.length;
+        itemBase = new int[ruleCount];
+        int itemCount = 0;
+        startOffsets = new int[symbolCount + 1];
+        used = new boolean[symbolCount];
+        for (int r = 0; r < ruleCount; r++) {
+            itemBase[r] = itemCount;
+            itemCount += ruleSymbols[r].length + 1;
+            startOffsets[ruleStart[r] + 1]++;
+            used[ruleStart[r]] = true;
+            for (int symbol : ruleSymbols[r])
+                used[symbol] = true;
+        }
+
+        itemRule = new int[itemCount];
+        for (int r = 0; r < ruleCount; r++)
+            Arrays.fill(itemRule, itemBase[r], itemBase[r] + ruleSymbols[r].length + 1, r);
+
+        for (int s = 0; s < symbolCount; s++)
+            startOffsets[s + 1] += startOffsets[s];
+        startRules = new int[ruleCount];
+        int[] filled = new int[symbolCount];
+        for (int r = 0; r < ruleCount; r++)
+            startRules[startOffsets[ruleStart[r]] + filled[ruleStart[r]]++] = r;
+    }
+
+    /**
+     * Find the symbols whose analysis cannot be reused from a previous
+     *  grammar: symbols whose rules changed, symbols that entered or left
+     *  the grammar, and every non-terminal with one of those in a rhs,
+     *  transitively.
+     *
+     * @return affected[s] for each symbol number s; all true if previous is
+     *  null
+     */
+    private boolean[] affectedSymbols(final IntGrammar previous, final boolean[] changed) {
+        boolean[] affected = new boolean[symbolCount];
+        if (previous == null) {
+            Arrays.fill(affected, true);
+            return affected;
+        }
+
+        // usedBy[Y] lists every rule start X with Y in one of its rhs
+        List<List<Integer>> usedBy = new ArrayList<>();
+        for (int s = 0; s < symbolCount; s++)
+            usedBy.add(new ArrayList<>());
+        for (int r = 0; r < ruleCount(); r++) {
+            for (int symbol : ruleSymbols[r])
+                usedBy.get(symbol).add(ruleStart[r]);
+        }
+
+        Deque<Integer> worklist = new ArrayDeque<>();
+        for (int s = 0; s < symbolCount; s++) {
+            if (s >= previous.symbolCount || changed[s] || used[s] != previous.used[s]) {
+                affected[s] = true;
+                worklist.add(s);
+            }
+        }
+        while (!worklist.isEmpty()) {
+            for (int X : usedBy.get(worklist.poll())) {
+                if (!affected[X]) {
+                    affected[X] = true;
+                    worklist.add(X);
+                }
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * Find the nullable symbols with a worklist. Each rule counts the symbols
+     *  of its rhs not yet known to be nullable; when a symbol becomes
+     *  nullable only the rules it occurs in are updated, and a rule whose
+     *  count reaches zero makes its start symbol nullable. Only the rules of
+     *  affected symbols are visited; the others keep their previous value.
+     */
+    private void makeNullable(final IntGrammar previous, final boolean[] affected) {
+        nullable = new boolean[symbolCount];
+        for (int s = 0; s < symbolCount; s++) {
+            if (!affected[s])
+                nullable[s] = previous.nullable[s];
+        }
+
+        // occurrences[s] lists the rules with s in their rhs, once per
+        // occurrence
+        List<List<Integer>> occurrences = new ArrayList<>();
+        for (int s = 0; s < symbolCount; s++)
+            occurrences.add(new ArrayList<>());
+        int[] remaining = new int[ruleCount()];
+        Deque<Integer> worklist = new ArrayDeque<>();
+        for (int r = 0; r < ruleCount(); r++) {
+            if (!affected[ruleStart[r]]) continue;
+            for (int symbol : ruleSymbols[r]) {
+                if (nullable[symbol]) continue;
+                remaining[r]++;
+                occurrences.get(symbol).add(r);
+            }
+            if (remaining[r] == 0 && !nullable[ruleStart[r]]) {
+                nullable[ruleStart[r]] = true;
+                worklist.add(ruleStart[r]);
+            }
+        }
+
+        while (!worklist.isEmpty()) {
+            for (int r : occurrences.get(worklist.poll())) {
+                if (--remaining[r] == 0 && !nullable[ruleStart[r]]) {
+                    nullable[ruleStart[r]] = true;
+                    worklist.add(ruleStart[r]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Find FIRST of every symbol with a worklist. FIRST(X) includes FIRST(Y)
+     *  for every rule X -> aYb with a nullable, so FIRST sets flow along
+     *  those edges; a symbol is revisited only when its FIRST set grows.
+     *  Only edges into affected symbols are followed; the others keep their
+     *  previous FIRST set.
+     */
+    private void makeFirst(final IntGrammar previous, final boolean[] affected) {
+        first = new BitSet[symbolCount];
+        for (int s = 0; s < symbolCount; s++)
+            first[s] = affected[s] ? new BitSet(symbolCount) : (BitSet) previous.first[s].clone();
+
+        // feeds[Y] lists every X whose FIRST includes FIRST(Y)
+        List<Set<Integer>> feeds = new ArrayList<>();
+        for (int s = 0; s < symbolCount; s++)
+            feeds.add(new LinkedHashSet<>());
+        for (int r = 0; r < ruleCount(); r++) {
+            if (!affected[ruleStart[r]]) continue;
+            for (int symbol : ruleSymbols[r]) {
+                if (symbol != ruleStart[r])
+                    feeds.get(symbol).add(ruleStart[r]);
+                if (!nullable[symbol]) break;
+            }
+        }
+
+        Deque<Integer> worklist = new ArrayDeque<>();
+        boolean[] queued = new boolean[symbolCount];
+        for (int s = 0; s < symbolCount; s++) {
+            if (isTerminal(s)) {
+                first[s].set(s);
+                worklist.add(s);
+                queued[s] = true;
+            }
+        }
+        for (int s = 0; s < symbolCount; s++) {
+            if (!affected[s] && !queued[s]) {
+                worklist.add(s);
+                queued[s] = true;
+            }
+        }
+
+        while (!worklist.isEmpty()) {
+            int Y = worklist.poll();
+            queued[Y] = false;
+            for (int X : feeds.get(Y)) {
+                int before = first[X].cardinality();
+                first[X].or(first[Y]);
+                if (first[X].cardinality() != before && !queued[X]) {
+                    worklist.add(X);
+                    queued[X] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Find FIRST and nullability of every rule suffix, walking each rhs
+     *  backwards so that each suffix extends the one after it. A rule kept
+     *  from the previous grammar with no affected symbol in its rhs shares
+     *  the previous rule's sets, which are never modified after
+     *  construction.
+     */
+    private void makeSuffixFirst(final IntGrammar previous, final boolean[] affected) {
+        suffixFirst = new BitSet[itemCount()];
+        suffixNullable = new boolean[itemCount()];
+        for (int r = 0; r < ruleCount(); r++) {
+            if (previous != null && previousRule[r] >= 0 && !anyAffected(ruleSymbols[r], affected)) {
+                int from = previous.item(previousRule[r], 0);
+                System.arraycopy(previous.suffixFirst, from, suffixFirst, item(r, 0), ruleSymbols[r].length + 1);
+                System.arraycopy(previous.suffixNullable, from, suffixNullable, item(r, 0), ruleSymbols[r].length + 1);
+                continue;
+            }
+
+            int end = item(r, ruleSymbols[r].length);
+            suffixFirst[end] = new BitSet();
+            suffixNullable[end] = true;
+            for (int i = ruleSymbols[r].length - 1; i >= 0; i--) {
+                int symbol = ruleSymbols[r][i];
+                int item = item(r, i);
+                suffixFirst[item] = (BitSet) first[symbol].clone();
+                suffixNullable[item] = nullable[symbol] && suffixNullable[item + 1];
+                if (nullable[symbol])
+                    suffixFirst[item].or(suffixFirst[item + 1]);
+            }
+        }
+    }
+
+    private static boolean anyAffected(final int[] symbols, final boolean[] affected) {
+        for (int symbol : symbols) {
+            if (affected[symbol]) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Find FOLLOW of every symbol with a worklist. For each rule A -> aBb,
+     *  FOLLOW(B) includes FIRST(b), and all of FOLLOW(A) if b is nullable;
+     *  the second kind of edge is followed only when FOLLOW(A) grows.
+     */
+    private void makeFollow() {
+        follow = new BitSet[symbolCount];
+        for (int s = 0; s < symbolCount; s++)
+            follow[s] = new BitSet(symbolCount);
+
+        // feeds[A] lists every B whose FOLLOW includes FOLLOW(A)
+        List<Set<Integer>> feeds = new ArrayList<>();
+        for (int s = 0; s < symbolCount; s++)
+            feeds.add(new LinkedHashSet<>());
+        for (int r = 0; r < ruleCount(); r++) {
+            for (int i = 0; i < ruleSymbols[r].length; i++) {
+                int symbol = ruleSymbols[r][i];
+                int after = item(r, i + 1);
+                follow[symbol].or(suffixFirst[after]);
+                if (suffixNullable[after] && symbol != ruleStart[r])
+                    feeds.get(ruleStart[r]).add(symbol);
+            }
+        }
+
+        Deque<Integer> worklist = new ArrayDeque<>();
+        boolean[] queued = new boolean[symbolCount];
+        for (int s = 0; s < symbolCount; s++) {
+            worklist.add(s);
+            queued[s] = true;
+        }
+
+        while (!worklist.isEmpty()) {
+            int A = worklist.poll();
+            queued[A] = false;
+            for (int B : feeds.get(A)) {
+                int before = follow[B].cardinality();
+                follow[B].or(follow[A]);
+                if (follow[B].cardinality() != before && !queued[B]) {
+                    worklist.add(B);
+                    queued[B] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the names of the grammar's symbols
+     */
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    /**
+     * @return the number of symbols in the grammar's symbol table when the
+     *  grammar was created, i.e. one more than the largest symbol number
+     */
+    public int symbolCount() {
+        return symbolCount;
+    }
+
+    /**
+     * @return true if the symbol occurs in the grammar and starts no rule
+     */
+    public boolean isTerminal(final int symbol) {
+        return used[symbol] && startRuleCount(symbol) == 0;
+    }
+
+    /**
+     * @return true if the symbol starts some rule
+     */
+    public boolean isNonTerminal(final int symbol) {
+        return startRuleCount(symbol) > 0;
+    }
+
+    /**
+     * @return true if the symbol with the given number is nullable
+     */
+    public boolean nullable(final int symbol) {
+        return symbol < nullable.length && nullable[symbol];
+    }
+
+    /**
+     * Add FIRST of the symbol with the given number to a set of terminal
+     *  numbers.
+     */
+    public void addFirst(final int symbol, final BitSet into) {
+        into.or(first[symbol]);
+    }
+
+    /**
+     * Add FOLLOW of the symbol with the given number to a set of terminal
+     *  numbers. The end of input is not added; grammars mark it with an
+     *  explicit symbol at the end of their start rule.
+     */
+    public void addFollow(final int symbol, final BitSet into) {
+        into.or(follow[symbol]);
+    }
+
+    /**
+     * @return the number of rules in the grammar
+     */
+    public int ruleCount() {
+        return ruleStart.length;
+    }
+
+    /**
+     * @return rule # rule as its start symbol followed by its rhs
+     */
+    public int[] rule(final int rule) {
+        int[] result = new int[ruleSymbols[rule].length + 1];
+        result[0] = ruleStart[rule];
+        System.arraycopy(ruleSymbols[rule], 0, result, 1, ruleSymbols[rule].length);
+        return result;
+    }
+
+    /**
+     * For a grammar created by {@link #edit}:
+     *
+     * @return the number of rule # rule in the grammar this one was edited
+     *  from, or -1 if the rule was added by the edit
+     * @throws IllegalStateException if this grammar was not created by edit
+     */
+    public int previousRule(final int rule) {
+        if (previousRule == null)
+            throw new IllegalStateException("grammar was not created by an edit");
+        return previousRule[rule];
+    }
+
+    /**
+     * For rule # rule, S -> X:
+     *
+     * @return the number of S
+     */
+    public int ruleStart(final int rule) {
+        return ruleStart[rule];
+    }
+
+    /**
+     * For rule # rule, S -> X:
+     *
+     * @return the number of symbols in X
+     */
+    public int ruleSize(final int rule) {
+        return ruleSymbols[rule].length;
+    }
+
+    /**
+     * For rule # rule, S -> X:
+     *
+     * @return the number of the ith symbol of X
+     */
+    public int ruleSymbol(final int rule, final int i) {
+        return ruleSymbols[rule][i];
+    }
+
+    /**
+     * @return the number of rules whose start symbol has the given number;
+     *  zero exactly when the symbol is not a non-terminal
+     */
+    public int startRuleCount(final int symbol) {
+        return startOffsets[symbol + 1] - startOffsets[symbol];
+    }
+
+    /**
+     * @return the rule number of the kth rule whose start symbol has the
+     *  given number, in rule-number order
+     */
+    public int startRule(final int symbol, final int k) {
+        return startRules[startOffsets[symbol] + k];
+    }
+
+    /**
+     * For item A -> a.b, add FIRST(b) to a set of terminal numbers.
+     *
+     * @param item the item number
+     * @param into the set to add to
+     */
+    public void addSuffixFirst(final int item, final BitSet into) {
+        into.or(suffixFirst[item]);
+    }
+
+    /**
+     * For item A -> a.b:
+     *
+     * @return true if b is nullable
+     */
+    public boolean suffixNullable(final int item) {
+        return suffixNullable[item];
+    }
+
+    /**
+     * @return the number of distinct LR(0) items over the grammar's rules
+     */
+    public int itemCount() {
+        return itemRule.length;
+    }
+
+    /**
+     * Get the number of the LR(0) item for a rule with the dot before
+     *  position dot of its rhs. Items of the same rule are numbered
+     *  consecutively, so moving the dot right adds one to the item number.
+     *
+     * @param rule the rule number
+     * @param dot the position of the dot, from 0 to the rule's size
+     * @return the item number
+     */
+    public int item(final int rule, final int dot) {
+        return itemBase[rule] + dot;
+    }
+
+    /**
+     * @return the rule number of an LR(0) item
+     */
+    public int itemRule(final int item) {
+        return itemRule[item];
+    }
+
+    /**
+     * @return the position of the dot in an LR(0) item
+     */
+    public int itemDot(final int item) {
+        return item - itemBase[itemRule[item]];
+    }
+
+    /**
+     * For item A -> a.Xb:
+     *
+     * @return the number of X, or -1 if the dot is at the end of the rule
+     */
+    public int itemNext(final int item) {
+        int rule = itemRule[item];
+        int dot = item - itemBase[rule];
+        return dot < ruleSymbols[rule].length ? ruleSymbols[rule][dot] : -1;
+    }
+
+    /**
+     * @return rule # rule written as "S -> X Y"
+     */
+    public String ruleString(final int rule) {
+        StringBuilder result = new StringBuilder(symbols.name(ruleStart[rule])).append(" ->");
+        for (int symbol : ruleSymbols[rule])
+            result.append(' ').append(symbols.name(symbol));
+        return result.toString();
+    }
+
+    /**
+     * @return an LR(0) item written as "S -> X . Y"
+     */
+    public String itemString(final int item) {
+        int rule = itemRule[item];
+        int dot = itemDot(item);
+        StringBuilder result = new StringBuilder(symbols.name(ruleStart[rule])).append(" ->");
+        for (int i = 0; i < ruleSymbols[rule].length; i++) {
+            if (i == dot)
+                result.append(" .");
+            result.append(' ').append(symbols.name(ruleSymbols[rule][i]));
+        }
+        if (dot == ruleSymbols[rule].length)
+            result.append(" .");
+        return result.toString();
+    }
+
+    /**
+     * @return the names of a set of symbol numbers
+     */
+    public List<String> names(final BitSet symbolSet) {
+        List<String> names = new ArrayList<>();
+        for (int s = symbolSet.nextSetBit(0); s >= 0; s = symbolSet.nextSetBit(s + 1))
+            names.add(symbols.name(s));
+        return names;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("Grammar:");
+        for (int r = 0; r < ruleCount(); r++)
+            result.append("\nr").append(r).append(": ").append(ruleString(r));
+        return result.toString();
+    }
+}
@@ -0,0 +1,410 @@
+package com.noahmpauls.compilers.generator;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A shift-reduce parse table stored as a dense int array. Rows are states and
+ *  columns are symbol numbers; terminal columns hold the ACTION table and
+ *  non-terminal columns hold the GOTO table. Each cell packs an action type
+ *  and its target (state or rule number) into a single int, with
+ *  {@link #ERROR} encoded as 0 so that a fresh table contains only errors.
+ */
+public class IntParseTable implements PackedTable {
+
+    public static final int ERROR = 0;
+    public static final int SHIFT = 1;
+    public static final int REDUCE = 2;
+    public static final int GOTO = 3;
+    public static final int ACCEPT = 4;
+
+    private static final int KIND_BITS = 3;
+    private static final int KIND_MASK = (1 << KIND_BITS) - 1;
+
+    private final SymbolTable symbols;
+    private final int eof;
+    // symbol number -> whether it is a terminal / non-terminal of the grammar
+    private final boolean[] terminal;
+    private final boolean[] nonTerminal;
+
+    // rule number -> length of the rule's rhs / number of the rule's lhs
+    private final int[] ruleSize;
+    private final int[] ruleStart;
+
+    private final int stateCount;
+    private final int width;
+    private final int[] cells;
+    // conflicts the generator could not resolve, in the order found
+    private final List<Conflict> conflicts;
+    // cell index -> the actions put into the cell, for cells that were put
+    // more than one action
+    private final Map<Integer, Contest> contested;
+    // cell indices made errors by a nonassociative precedence tie
+    private final BitSet precedenceErrors;
+    // cell indices whose reduce/reduce conflicts an LALR merge introduced
+    private final BitSet mergeConflicts;
+
+    /**
+     * Create a table for the given grammar where every cell is an error.
+     *
+     * @param grammar the grammar the table parses
+     * @param eof the number of the symbol marking the end of input
+     * @param stateCount the number of states (rows) in the table
+     */
+    public IntParseTable(final IntGrammar grammar, final int eof, final int stateCount) {
+        this.symbols = grammar.symbols();
+        this.eof = eof;
+        this.width = grammar.symbolCount();
+        this.terminal = new boolean[width];
+        this.nonTerminal = new boolean[width];
+        for (int s = 0; s < width; s++) {
+            terminal[s] = grammar.isTerminal(s);
+            nonTerminal[s] = grammar.isNonTerminal(s);
+        }
+
+        ruleSize = new int[grammar.ruleCount()];
+        ruleStart = new int[grammar.ruleCount()];
+        for (int i = 0; i < ruleSize.length; i++) {
+            ruleSize[i] = grammar.ruleSize(i);
+            ruleStart[i] = grammar.ruleStart(i);
+        }
+
+        this.stateCount = stateCount;
+        this.cells = new int[stateCount * width];
+        this.conflicts = new ArrayList<>();
+        this.contested = new HashMap<>();
+        this.precedenceErrors = new BitSet();
+        this.mergeConflicts = new BitSet();
+    }
+
+    /**
+     * Create a table for the given grammar holding the shifts and gotos of
+     *  an automaton's transitions; every other cell is an error.
+     *
+     * @param grammar the grammar the table parses
+     * @param eof the number of the symbol marking the end of input
+     * @param transitions the transitions of the grammar's LR automaton
+     */
+    public IntParseTable(final IntGrammar grammar, final int eof, final Transitions transitions) {
+        this(grammar, eof, transitions.stateCount());
+        for (int i = 0; i < stateCount; i++) {
+            for (int symbol = 0; symbol < width; symbol++) {
+                int j = transitions.get(i, symbol);
+                if (j < 0) continue;
+                int kind = nonTerminal[symbol] ? GOTO : SHIFT;
+                cells[i * width + symbol] = pack(kind, j);
+            }
+        }
+    }
+
+    /**
+     * Create a view of another table; cells put into either table are seen
+     *  by both.
+     */
+    protected IntParseTable(final IntParseTable table) {
+        this.symbols = table.symbols;
+        this.eof = table.eof;
+        this.terminal = table.terminal;
+        this.nonTerminal = table.nonTerminal;
+        this.ruleSize = table.ruleSize;
+        this.ruleStart = table.ruleStart;
+        this.stateCount = table.stateCount;
+        this.width = table.width;
+        this.cells = table.cells;
+        this.conflicts = table.conflicts;
+        this.contested = table.contested;
+        this.precedenceErrors = table.precedenceErrors;
+        this.mergeConflicts = table.mergeConflicts;
+    }
+
+    /**
+     * Pack an action type and target into a table cell.
+     *
+     * @param kind one of ERROR, SHIFT, REDUCE, GOTO or ACCEPT
+     * @param target the state or rule number the action refers to
+     * @return the packed cell
+     */
+    public static int pack(final int kind, final int target) {
+        return (target << KIND_BITS) | kind;
+    }
+
+    public static int pack(final Action action) {
+        switch (action.type) {
+            case SHIFT:
+                return pack(SHIFT, action.value);
+            case REDUCE:
+                return pack(REDUCE, action.value);
+            case GOTO:
+                return pack(GOTO, action.value);
+            case ACCEPT:
+                return pack(ACCEPT, 0);
+            default:
+                return ERROR;
+        }
+    }
+
+    public static Action unpack(final int cell) {
+        switch (kind(cell)) {
+            case SHIFT:
+                return Action.shift(target(cell));
+            case REDUCE:
+                return Action.reduce(target(cell));
+            case GOTO:
+                return Action.goTo(target(cell));
+            case ACCEPT:
+                return Action.accept();
+            default:
+                return Action.error();
+        }
+    }
+
+    /**
+     * @return the action type stored in a packed cell
+     */
+    public static int kind(final int cell) {
+        return cell & KIND_MASK;
+    }
+
+    /**
+     * @return the state or rule number stored in a packed cell
+     */
+    public static int target(final int cell) {
+        return cell >>> KIND_BITS;
+    }
+
+    /**
+     * Get the packed action for a state and symbol.
+     *
+     * @param state the state (row)
+     * @param symbol the number of the symbol (column)
+     * @return the packed cell
+     */
+    @Override
+    public int action(final int state, final int symbol) {
+        return cells[state * width + symbol];
+    }
+
+    @Override
+    public int goTo(final int state, final int nonTerminal) {
+        return target(cells[state * width + nonTerminal]);
+    }
+
+    public void put(final int state, final int symbol, final int cell) {
+        cells[state * width + symbol] = cell;
+    }
+
+    /**
+     * Put an action found by a generator into a cell, resolving a conflict
+     *  with the actions already put there. A shift/reduce conflict is
+     *  decided by precedence where both the terminal and the rule have one;
+     *  otherwise, as in yacc, the shift (or accept) is kept, and of several
+     *  reduces the one by the rule listed first is kept. Every conflict
+     *  precedence does not decide is recorded in {@link #conflicts()}.
+     *
+     * Neither the outcome nor the conflicts recorded depend on the order the
+     *  actions are put in: each contested cell remembers its shift and its
+     *  kept reduce, so a reduce put after precedence decided the cell, even
+     *  as an error, is still weighed against both, and a shift/reduce
+     *  conflict is dropped when its reduce is not kept.
+     *
+     * @param state the state (row)
+     * @param symbol the number of the terminal (column)
+     * @param cell the packed shift, reduce or accept
+     * @param grammar the grammar the table parses
+     * @param precedence the precedence of the grammar's terminals and rules
+     */
+    public void putAction(final int state, final int symbol, final int cell, final IntGrammar grammar, final Precedence precedence) {
+        final int index = state * width + symbol;
+        final int existing = cells[index];
+        Contest contest = contested.isEmpty() ? null : contested.get(index);
+        if (contest == null) {
+            if (existing == ERROR || existing == cell
+                    || kind(existing) == kind(cell) && kind(cell) != REDUCE) {
+                cells[index] = cell;
+                return;
+            }
+            contest = new Contest();
+            if (kind(existing) == REDUCE)
+                contest.reduce = existing;
+            else
+                contest.shift = existing;
+            contested.put(index, contest);
+        }
+
+        if (kind(cell) == REDUCE) {
+            int reduce = contest.reduce;
+            if (reduce == cell) return;
+            if (reduce >= 0) {
+                conflicts.add(new Conflict(state, symbol, symbolName(symbol), reduce, cell, mergeConflicts.get(index)));
+                // the kept reduce was already weighed against the shift
+                if (target(reduce) < target(cell)) return;
+                if (contest.shiftReduce != null) {
+                    conflicts.remove(contest.shiftReduce);
+                    contest.shiftReduce = null;
+                }
+            }
+            contest.reduce = cell;
+        } else {
+            if (contest.shift == cell) return;
+            contest.shift = cell;
+        }
+
+        int shift = contest.shift;
+        int reduce = contest.reduce;
+        precedenceErrors.clear(index);
+        if (shift < 0 || reduce < 0) {
+            cells[index] = shift < 0 ? reduce : shift;
+            return;
+        }
+        int resolved = precedence.resolve(grammar, symbol, shift, reduce);
+        if (resolved < 0) {
+            contest.shiftReduce = new Conflict(state, symbol, symbolName(symbol), cell == shift ? reduce : shift, cell);
+            conflicts.add(contest.shiftReduce);
+            resolved = shift;
+        } else if (resolved == ERROR) {
+            precedenceErrors.set(index);
+        }
+        cells[index] = resolved;
+    }
+
+    /**
+     * The actions put into a contested cell.
+     */
+    private static final class Contest {
+        // the packed shift or accept, and the kept reduce, or -1 for none
+        int shift = -1;
+        int reduce = -1;
+        // the recorded conflict between them, if precedence did not decide
+        Conflict shiftReduce;
+    }
+
+    /**
+     * Mark a cell whose reduce/reduce conflicts exist only because LR(1)
+     *  states with the same core were merged, before reduces are put into
+     *  it; they are recorded with {@link Conflict#isIntroducedByMerge()}.
+     */
+    public void markMergeConflict(final int state, final int symbol) {
+        mergeConflicts.set(state * width + symbol);
+    }
+
+    /**
+     * Record a conflict found while filling the table.
+     */
+    public void addConflict(final Conflict conflict) {
+        conflicts.add(conflict);
+    }
+
+    /**
+     * A nonassociative precedence tie makes a cell an error even though
+     *  the state reduces on its terminal. Compressed tables must keep such
+     *  cells as explicit errors rather than let the state's default reduce
+     *  stand in for them.
+     *
+     * @return true if precedence made the cell an error
+     */
+    public boolean isPrecedenceError(final int state, final int symbol) {
+        return precedenceErrors.get(state * width + symbol);
+    }
+
+    /**
+     * @return the conflicts the generator could not resolve with
+     *  precedence, in the order found
+     */
+    public List<Conflict> conflicts() {
+        return Collections.unmodifiableList(conflicts);
+    }
+
+    /**
+     * @return the number of states (rows) in the table
+     */
+    public int stateCount() {
+        return stateCount;
+    }
+
+    @Override
+    public int ruleCount() {
+        return ruleSize.length;
+    }
+
+    @Override
+    public int ruleSize(final int rule) {
+        return ruleSize[rule];
+    }
+
+    @Override
+    public int ruleStart(final int rule) {
+        return ruleStart[rule];
+    }
+
+    @Override
+    public int eofSymbol() {
+        return eof;
+    }
+
+    /**
+     * @return the number of symbols (columns) in the table, i.e. one more
+     *  than the largest symbol number
+     */
+    public int symbolCount() {
+        return width;
+    }
+
+    /**
+     * @return the names of the table's symbols
+     */
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    /**
+     * @return the name of the symbol with the given number
+     */
+    public String symbolName(final int symbol) {
+        return symbols.name(symbol);
+    }
+
+    /**
+     * @return true if the symbol is a terminal of the grammar
+     */
+    public boolean isTerminal(final int symbol) {
+        return terminal[symbol];
+    }
+
+    /**
+     * @return true if the symbol is a non-terminal of the grammar
+     */
+    public boolean isNonTerminal(final int symbol) {
+        return nonTerminal[symbol];
+    }
+
+    /**
+     * @return the numbers of the grammar's terminals, in increasing order
+     */
+    public int[] terminalSymbols() {
+        return select(terminal);
+    }
+
+    /**
+     * @return the numbers of the grammar's non-terminals, in increasing order
+     */
+    public int[] nonTerminalSymbols() {
+        return select(nonTerminal);
+    }
+
+    private static int[] select(final boolean[] flags) {
+        int count = 0;
+        for (boolean flag : flags) {
+            if (flag) count++;
+        }
+        int[] selected = new int[count];
+        count = 0;
+        for (int s = 0; s < flags.length; s++) {
+            if (flags[s]) selected[count++] = s;
+        }
+        return selected;
+    }
+}
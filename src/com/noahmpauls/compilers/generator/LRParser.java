@@ -0,0 +1,173 @@
+package com.noahmpauls.compilers.generator;
+
+import com.noahmpauls.compilers.generator.lrone.ParserGenerator;
+
+import java.util.Arrays;
+
+/**
+ * Table-driven shift-reduce parser. Runs the shift/reduce/goto/accept loop
+ *  over a {@link PackedTable}, keeping its state stack in a growable int array
+ *  that is reused between parses, so no allocation happens per token.
+ *
+ * A parser instance is not thread-safe; use one parser per thread.
+ */
+public class LRParser<E extends Enum<E>> {
+
+    public static void main(String[] args) {
+        Grammar<S3> grammar = new Grammar<>(Arrays.asList(
+                new Production<>(S3.SP, new S3[]{ S3.S, S3.EOP }),
+                new Production<>(S3.S, new S3[]{ S3.V, S3.EQ, S3.E }),
+                new Production<>(S3.S, new S3[]{ S3.E }),
+                new Production<>(S3.E, new S3[]{ S3.V }),
+                new Production<>(S3.V, new S3[]{ S3.x }),
+                new Production<>(S3.V, new S3[]{ S3.STAR, S3.E })
+        ));
+
+        LRParser<S3> parser = new LRParser<>(ParserGenerator.createParseTable(grammar, 0, S3.EOP));
+        System.out.println(parser.parse(new S3[]{ S3.STAR, S3.x, S3.EQ, S3.x, S3.EOP }));
+        System.out.println(parser.parse(new S3[]{ S3.x, S3.EQ, S3.EQ }) + " at " + parser.errorPosition());
+        System.out.println(parser.parse(new S3[]{ S3.x, S3.EOP, S3.x }) + " at " + parser.errorPosition());
+    }
+
+    /**
+     * Receives the steps taken by the parser, e.g. to build a syntax tree.
+     */
+    public interface Listener {
+        /**
+         * Called when the token at the given input position is shifted.
+         */
+        void shift(int position);
+
+        /**
+         * Called when the parser reduces by the given rule number.
+         */
+        void reduce(int rule);
+    }
+
+    private static final int SHIFTED = 0;
+    private static final int ACCEPTED = 1;
+    private static final int FAILED = 2;
+
+    private final PackedTable table;
+    private final int eof;
+    // rule number -> length of the rule's rhs / ordinal of the rule's lhs
+    private final int[] ruleSize;
+    private final int[] ruleStart;
+
+    private Listener listener;
+
+    private int[] stack;
+    private int top;
+    private int errorPosition;
+
+    public LRParser(final PackedTable table) {
+        this.table = table;
+        this.eof = table.eofSymbol();
+        this.ruleSize = new int[table.ruleCount()];
+        this.ruleStart = new int[table.ruleCount()];
+        for (int i = 0; i < table.ruleCount(); i++) {
+            ruleSize[i] = table.ruleSize(i);
+            ruleStart[i] = table.ruleStart(i);
+        }
+        this.stack = new int[64];
+        this.errorPosition = -1;
+    }
+
+    /**
+     * Set the listener notified of shifts and reductions, or null for none.
+     */
+    public void setListener(final Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Parse a sequence of tokens. If the tokens do not end with the table's
+     *  end-of-input symbol, one is supplied after the last token.
+     *
+     * @param tokens the input tokens
+     * @return true if the input is accepted, false on a syntax error
+     */
+    public boolean parse(final E[] tokens) {
+        reset();
+        for (int i = 0; i < tokens.length; i++) {
+            int result = step(tokens[i].ordinal(), i);
+            if (result != SHIFTED) return result == ACCEPTED && acceptedAt(i, tokens.length);
+        }
+        return step(eof, tokens.length) == ACCEPTED;
+    }
+
+    /**
+     * Parse a sequence of tokens given by their symbol ordinals. If the
+     *  tokens do not end with the table's end-of-input symbol, one is
+     *  supplied after the last token.
+     *
+     * @param tokens the ordinals of the input tokens
+     * @param length the number of tokens to read from the array
+     * @return true if the input is accepted, false on a syntax error
+     */
+    public boolean parse(final int[] tokens, final int length) {
+        reset();
+        for (int i = 0; i < length; i++) {
+            int result = step(tokens[i], i);
+            if (result != SHIFTED) return result == ACCEPTED && acceptedAt(i, length);
+        }
+        return step(eof, length) == ACCEPTED;
+    }
+
+    /**
+     * @return the input position of the token that caused the last syntax
+     *  error, or -1 if the last parse succeeded
+     */
+    public int errorPosition() {
+        return errorPosition;
+    }
+
+    /**
+     * Check that an accept happened on the last token; any token after the
+     *  end-of-input symbol is a syntax error.
+     */
+    private boolean acceptedAt(final int position, final int length) {
+        if (position == length - 1) return true;
+        errorPosition = position + 1;
+        return false;
+    }
+
+    private void reset() {
+        top = 0;
+        stack[0] = 0;
+        errorPosition = -1;
+    }
+
+    /**
+     * Perform reductions on the lookahead until it is shifted, accepted or
+     *  rejected.
+     */
+    private int step(final int lookahead, final int position) {
+        while (true) {
+            int cell = table.action(stack[top], lookahead);
+            switch (ParseTable.kind(cell)) {
+                case ParseTable.SHIFT:
+                    push(ParseTable.target(cell));
+                    if (listener != null) listener.shift(position);
+                    return SHIFTED;
+                case ParseTable.REDUCE:
+                    int rule = ParseTable.target(cell);
+                    top -= ruleSize[rule];
+                    push(table.goTo(stack[top], ruleStart[rule]));
+                    if (listener != null) listener.reduce(rule);
+                    break;
+                case ParseTable.ACCEPT:
+                    return ACCEPTED;
+                default:
+                    errorPosition = position;
+                    return FAILED;
+            }
+        }
+    }
+
+    private void push(final int state) {
+        if (++top == stack.length)
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        stack[top] = state;
+    }
+}
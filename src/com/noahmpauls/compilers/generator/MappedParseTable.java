@@ -0,0 +1,222 @@
+package com.noahmpauls.compilers.generator;
+
+import com.noahmpauls.compilers.generator.lalr.ParserGenerator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A compressed parse table read directly from a file written by
+ *  {@link CompressedParseTable#write(Path)}. The file is memory-mapped and
+ *  every lookup reads the mapped buffer, so loading costs only the map, a
+ *  check of the header and one pass over the symbol names, whatever the
+ *  size of the table.
+ */
+public class MappedParseTable implements PackedTable {
+
+    public static void main(String[] args) throws IOException {
+        Grammar<S3> grammar = new Grammar<>(Arrays.asList(
+                new Production<>(S3.SP, new S3[]{ S3.S, S3.EOP }),
+                new Production<>(S3.S, new S3[]{ S3.V, S3.EQ, S3.E }),
+                new Production<>(S3.S, new S3[]{ S3.E }),
+                new Production<>(S3.E, new S3[]{ S3.V }),
+                new Production<>(S3.V, new S3[]{ S3.x }),
+                new Production<>(S3.V, new S3[]{ S3.STAR, S3.E })
+        ));
+
+        Path file = Files.createTempFile("s3", ".lrt");
+        new CompressedParseTable(ParserGenerator.createParseTable(grammar, 0, S3.EOP)).write(file);
+        MappedParseTable table = MappedParseTable.load(file);
+        table.checkSymbols(S3.class);
+
+        LRParser<S3> parser = new LRParser<>(table);
+        System.out.println(parser.parse(new S3[]{ S3.STAR, S3.x, S3.EQ, S3.x, S3.EOP }));
+        System.out.println(parser.parse(new S3[]{ S3.x, S3.EQ, S3.EQ }) + " at " + parser.errorPosition());
+        Files.delete(file);
+    }
+
+    /** the first int of every table file: "LRPT" */
+    public static final int MAGIC = 0x4C525054;
+    /** the version of the format written by this code */
+    public static final int VERSION = 1;
+
+    private static final int HEADER_INTS = 7;
+
+    private final ByteBuffer bytes;
+    private final IntBuffer ints;
+
+    private final int symbolCount;
+    private final int stateCount;
+    private final int ruleCount;
+    private final int eof;
+
+    // int offsets of each array in the file
+    private final int ruleSizeAt;
+    private final int ruleStartAt;
+    private final int defaultActionAt;
+    private final int actionBaseAt;
+    private final int defaultGotoAt;
+    private final int gotoBaseAt;
+    private final int nextAt;
+    private final int checkAt;
+    // byte offset of each symbol's name, i.e. of its length prefix
+    private final int[] nameAt;
+
+    private MappedParseTable(final ByteBuffer bytes) throws IOException {
+        this.bytes = bytes;
+        this.ints = bytes.asIntBuffer();
+        if (ints.limit() < HEADER_INTS || ints.get(0) != MAGIC)
+            throw new IOException("not a parse table file");
+        if (ints.get(1) != VERSION)
+            throw new IOException("unsupported parse table version " + ints.get(1) + ", expected " + VERSION);
+
+        symbolCount = ints.get(2);
+        stateCount = ints.get(3);
+        ruleCount = ints.get(4);
+        eof = ints.get(5);
+        int vectorLength = ints.get(6);
+        if (symbolCount < 0 || stateCount < 0 || ruleCount < 0 || vectorLength < 0 || eof < 0 || eof >= symbolCount)
+            throw new IOException("corrupt parse table header");
+
+        ruleSizeAt = HEADER_INTS;
+        ruleStartAt = ruleSizeAt + ruleCount;
+        defaultActionAt = ruleStartAt + ruleCount;
+        actionBaseAt = defaultActionAt + stateCount;
+        defaultGotoAt = actionBaseAt + stateCount;
+        gotoBaseAt = defaultGotoAt + symbolCount;
+        nextAt = gotoBaseAt + symbolCount;
+        checkAt = nextAt + vectorLength;
+        // the offsets are computed as longs so a corrupt header cannot
+        // overflow them into the file
+        long at = 4L * (HEADER_INTS + 2L * ruleCount + 2L * stateCount + 2L * symbolCount + 2L * vectorLength);
+        if (at > bytes.limit())
+            throw new IOException("truncated parse table file");
+
+        // each name is a length followed by that many bytes of UTF-8
+        nameAt = new int[symbolCount];
+        for (int s = 0; s < symbolCount; s++) {
+            if (at + 4 > bytes.limit())
+                throw new IOException("truncated parse table file");
+            int length = bytes.getInt((int) at);
+            if (length < 0 || at + 4 + length > bytes.limit())
+                throw new IOException("corrupt symbol name " + s + " in parse table file");
+            nameAt[s] = (int) at;
+            at += 4 + length;
+        }
+    }
+
+    /**
+     * Map a table file into memory.
+     *
+     * @param file a file written by {@link CompressedParseTable#write(Path)}
+     * @return the table, backed by the mapped file
+     * @throws IOException if the file cannot be read or is not a table file
+     *  of this version
+     */
+    public static MappedParseTable load(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedParseTable(buffer);
+        }
+    }
+
+    /**
+     * Check that the table's symbols have the same ordinals as the constants
+     *  of an enum, so tokens of that type can be fed to the table.
+     *
+     * @param symbols the enum type of the grammar symbols
+     * @throws IllegalArgumentException if the names or ordinals differ
+     */
+    public <E extends Enum<E>> void checkSymbols(final Class<E> symbols) {
+        E[] constants = symbols.getEnumConstants();
+        if (constants.length != symbolCount)
+            throw new IllegalArgumentException("table has " + symbolCount + " symbols but " + symbols.getSimpleName() + " has " + constants.length);
+        for (E constant : constants) {
+            if (!constant.name().equals(symbolName(constant.ordinal())))
+                throw new IllegalArgumentException("table symbol " + constant.ordinal() + " is " + symbolName(constant.ordinal()) + ", not " + constant.name());
+        }
+    }
+
+    /**
+     * Check that the table's symbols have the same numbers as the symbols of
+     *  a grammar, so tokens numbered by the grammar can be fed to the table.
+     *
+     * @param grammar the grammar the table is used for
+     * @throws IllegalArgumentException if the names or numbers differ
+     */
+    public void checkSymbols(final IntGrammar grammar) {
+        if (grammar.symbolCount() != symbolCount)
+            throw new IllegalArgumentException("table has " + symbolCount + " symbols but the grammar has " + grammar.symbolCount());
+        for (int s = 0; s < symbolCount; s++) {
+            if (!grammar.symbols().name(s).equals(symbolName(s)))
+                throw new IllegalArgumentException("table symbol " + s + " is " + symbolName(s) + ", not " + grammar.symbols().name(s));
+        }
+    }
+
+    /**
+     * @return the name of the symbol with the given ordinal
+     */
+    public String symbolName(final int ordinal) {
+        if (ordinal < 0 || ordinal >= symbolCount)
+            throw new IndexOutOfBoundsException("ordinal " + ordinal + " invalid for table with " + symbolCount + " symbols");
+        int at = nameAt[ordinal];
+        byte[] name = new byte[bytes.getInt(at)];
+        for (int i = 0; i < name.length; i++)
+            name[i] = bytes.get(at + 4 + i);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int action(final int state, final int terminal) {
+        int slot = ints.get(actionBaseAt + state) + terminal;
+        return ints.get(checkAt + slot) == state ? ints.get(nextAt + slot) : ints.get(defaultActionAt + state);
+    }
+
+    @Override
+    public int goTo(final int state, final int nonTerminal) {
+        int slot = ints.get(gotoBaseAt + nonTerminal) + state;
+        return ints.get(checkAt + slot) == stateCount + nonTerminal ? ints.get(nextAt + slot) : ints.get(defaultGotoAt + nonTerminal);
+    }
+
+    @Override
+    public int eofSymbol() {
+        return eof;
+    }
+
+    @Override
+    public int ruleCount() {
+        return ruleCount;
+    }
+
+    @Override
+    public int ruleSize(final int rule) {
+        return ints.get(ruleSizeAt + rule);
+    }
+
+    @Override
+    public int ruleStart(final int rule) {
+        return ints.get(ruleStartAt + rule);
+    }
+
+    /**
+     * @return the number of states in the table
+     */
+    public int stateCount() {
+        return stateCount;
+    }
+
+    /**
+     * @return the number of symbols in the table
+     */
+    public int symbolCount() {
+        return symbolCount;
+    }
+}
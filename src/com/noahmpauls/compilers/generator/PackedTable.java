@@ -0,0 +1,51 @@
+package com.noahmpauls.compilers.generator;
+
+/**
+ * Read access to a parse table whose actions are packed into ints as by
+ *  {@link ParseTable#pack(int, int)}. This is everything {@link LRParser}
+ *  needs, so any table layout implementing it can drive a parser.
+ */
+public interface PackedTable {
+
+    /**
+     * Get the parse action for a state and terminal.
+     *
+     * @param state the state
+     * @param terminal the ordinal of the terminal
+     * @return the packed action
+     */
+    int action(int state, int terminal);
+
+    /**
+     * Get the state to go to after reducing to a non-terminal.
+     *
+     * @param state the state uncovered by the reduction
+     * @param nonTerminal the ordinal of the non-terminal
+     * @return the state to go to
+     */
+    int goTo(int state, int nonTerminal);
+
+    /**
+     * @return the ordinal of the symbol marking the end of input
+     */
+    int eofSymbol();
+
+    /**
+     * @return the number of rules in the grammar the table parses
+     */
+    int ruleCount();
+
+    /**
+     * For rule S -> X:
+     *
+     * @return the number of symbols in X
+     */
+    int ruleSize(int rule);
+
+    /**
+     * For rule S -> X:
+     *
+     * @return the ordinal of S
+     */
+    int ruleStart(int rule);
+}
@@ -0,0 +1,118 @@
+package com.noahmpauls.compilers.generator;
+
+import java.util.*;
+
+/**
+ * A view of an {@link IntParseTable} whose symbol numbers are the ordinals
+ *  of an enum, adding lookups by enum constant and a nested map view.
+ */
+public class ParseTable<E extends Enum<E>> extends IntParseTable {
+
+    private final E[] symbols;
+    private final E eof;
+    private final Set<E> terminals;
+    private final Set<E> nonTerminals;
+
+    /**
+     * Create a table for the given grammar where every cell is an error.
+     *
+     * @param grammar the grammar the table parses
+     * @param eof the symbol marking the end of input
+     * @param stateCount the number of states (rows) in the table
+     */
+    public ParseTable(final Grammar<E> grammar, final E eof, final int stateCount) {
+        this(new IntParseTable(grammar.ints(), eof.ordinal(), stateCount), eof);
+    }
+
+    /**
+     * Create a table for the given grammar holding the shifts and gotos of
+     *  an automaton's transitions; every other cell is an error.
+     *
+     * @param grammar the grammar the table parses
+     * @param eof the symbol marking the end of input
+     * @param transitions the transitions of the grammar's LR automaton
+     */
+    public ParseTable(final Grammar<E> grammar, final E eof, final Transitions transitions) {
+        this(new IntParseTable(grammar.ints(), eof.ordinal(), transitions), eof);
+    }
+
+    /**
+     * View a table over symbol numbers as a table over the constants of the
+     *  enum of eof, where each symbol number is a constant's ordinal.
+     *
+     * @param table the table to view; cells put into either table are seen
+     *              by both
+     * @param eof the symbol marking the end of input
+     * @throws IllegalArgumentException if the table's symbols are not the
+     *  enum's constants
+     */
+    public ParseTable(final IntParseTable table, final E eof) {
+        super(table);
+        this.symbols = eof.getDeclaringClass().getEnumConstants();
+        if (symbolCount() != symbols.length || eofSymbol() != eof.ordinal())
+            throw new IllegalArgumentException("table symbols do not match " + eof.getDeclaringClass().getSimpleName());
+        this.eof = eof;
+        this.terminals = EnumSet.noneOf(eof.getDeclaringClass());
+        this.nonTerminals = EnumSet.noneOf(eof.getDeclaringClass());
+        for (E symbol : symbols) {
+            if (isTerminal(symbol.ordinal()))
+                terminals.add(symbol);
+            if (isNonTerminal(symbol.ordinal()))
+                nonTerminals.add(symbol);
+        }
+    }
+
+    public Action get(final int state, final E symbol) {
+        return unpack(action(state, symbol.ordinal()));
+    }
+
+    public void put(final int state, final E symbol, final int cell) {
+        put(state, symbol.ordinal(), cell);
+    }
+
+    public void put(final int state, final E symbol, final Action action) {
+        put(state, symbol, pack(action));
+    }
+
+    /**
+     * @return the symbol marking the end of input
+     */
+    public E eof() {
+        return eof;
+    }
+
+    /**
+     * @return the symbol with the given ordinal
+     */
+    public E symbol(final int ordinal) {
+        return symbols[ordinal];
+    }
+
+    public Set<E> terminals() {
+        return EnumSet.copyOf(terminals);
+    }
+
+    public Set<E> nonTerminals() {
+        return EnumSet.copyOf(nonTerminals);
+    }
+
+    /**
+     * View this table as nested maps, where keys of the outer map correspond
+     *  to states s0 - sN and keys of the inner map correspond to the grammar
+     *  symbols. Every terminal and non-terminal has an entry in each row.
+     *
+     * @return the table as nested maps
+     */
+    public Map<Integer, Map<E, Action>> toMap() {
+        Map<Integer, Map<E, Action>> parseTable = new HashMap<>();
+        for (int i = 0; i < stateCount(); i++) {
+            Map<E, Action> row = new HashMap<>();
+            for (E symbol : terminals)
+                row.put(symbol, get(i, symbol));
+            for (E symbol : nonTerminals)
+                row.put(symbol, get(i, symbol));
+            parseTable.put(i, row);
+        }
+        return parseTable;
+    }
+}
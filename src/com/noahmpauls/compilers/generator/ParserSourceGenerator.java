@@ -0,0 +1,329 @@
+package com.noahmpauls.compilers.generator;
+
+import com.noahmpauls.compilers.generator.lalr.ParserGenerator;
+
+import java.util.*;
+
+/**
+ * Emits the Java source of a standalone parser for one parse table. The
+ *  generated class has no dependencies outside java.lang: actions are
+ *  compiled into a small method per state that switches on the lookahead
+ *  ordinal, gotos into a method per non-terminal that switches on the
+ *  state, and rule arities and start symbols into constant arrays.
+ *
+ * Any switch with more than {@value #CHUNK} cases, such as the dispatch on
+ *  the state, first switches on the block of {@value #CHUNK} keys and calls
+ *  one method per block. Every method then stays under HotSpot's 8000-byte
+ *  HugeMethodLimit, so it is JIT-compiled, and far under the class file's
+ *  64KB method limit. The constant arrays are decoded from string literals
+ *  rather than written as array initializers, whose code in the static
+ *  initializer grows with the number of rules.
+ *
+ * Like {@link CompressedParseTable}, each state's most common reduce
+ *  becomes the default case of its switch, as does each non-terminal's
+ *  most common goto, so errors are reported on the same lookahead as with
+ *  the full table.
+ */
+public class ParserSourceGenerator {
+
+    // the most cases written in one switch
+    private static final int CHUNK = 256;
+    // the most ints written in one string literal, as two chars each; a
+    // literal is limited to 65535 bytes of modified UTF-8, three per char
+    private static final int STRING_INTS = 4096;
+
+    public static void main(String[] args) {
+        Grammar<S3> grammar = new Grammar<>(Arrays.asList(
+                new Production<>(S3.SP, new S3[]{ S3.S, S3.EOP }),
+                new Production<>(S3.S, new S3[]{ S3.V, S3.EQ, S3.E }),
+                new Production<>(S3.S, new S3[]{ S3.E }),
+                new Production<>(S3.E, new S3[]{ S3.V }),
+                new Production<>(S3.V, new S3[]{ S3.x }),
+                new Production<>(S3.V, new S3[]{ S3.STAR, S3.E })
+        ));
+
+        ParseTable<S3> table = ParserGenerator.createParseTable(grammar, 0, S3.EOP);
+        System.out.println(generate(table, grammar, "com.example", "S3Parser"));
+
+        // a table large enough that a method per switch would not compile
+        SyntheticGrammar synthetic = SyntheticGrammar.generate(2000, 200, 0.1, 0.2, 3, 8, 42);
+        IntParseTable large = ParserGenerator.createParseTable(synthetic.grammar(), synthetic.startRule(), synthetic.eof());
+        String source = generate(large, synthetic.grammar(), "", "SyntheticParser");
+        System.out.println(large.stateCount() + " states: " + source.length() + " chars of source");
+        javax.tools.JavaCompiler compiler = javax.tools.ToolProvider.getSystemJavaCompiler();
+        if (compiler != null) {
+            try {
+                java.nio.file.Path directory = java.nio.file.Files.createTempDirectory("parser");
+                java.nio.file.Path file = directory.resolve("SyntheticParser.java");
+                java.nio.file.Files.write(file, source.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                System.out.println("javac exit code " + compiler.run(null, null, null, "-d", directory.toString(), file.toString()));
+            } catch (java.io.IOException e) {
+                System.out.println("could not write the source: " + e.getMessage());
+            }
+        }
+    }
+
+    public static <E extends Enum<E>> String generate(final ParseTable<E> table, final Grammar<E> grammar, final String packageName, final String className) {
+        return generate(table, grammar.ints(), packageName, className);
+    }
+
+    /**
+     * Generate the source of a parser class for a table. Symbol names must
+     *  be Java identifiers.
+     *
+     * @param table the parse table to compile
+     * @param grammar the grammar the table was generated from; only used to
+     *                comment the rule arrays
+     * @param packageName the package of the generated class, or "" for the
+     *                    default package
+     * @param className the simple name of the generated class
+     * @return the Java source of the class
+     */
+    public static String generate(final IntParseTable table, final IntGrammar grammar, final String packageName, final String className) {
+        int[] terminals = table.terminalSymbols();
+        int[] nonTerminals = table.nonTerminalSymbols();
+
+        StringBuilder out = new StringBuilder();
+        if (!packageName.isEmpty())
+            out.append("package ").append(packageName).append(";\n\n");
+        out.append("/**\n");
+        out.append(" * Shift-reduce parser generated for a ").append(table.stateCount()).append("-state parse table.\n");
+        out.append(" *  Do not edit; regenerate from the grammar instead.\n");
+        out.append(" *\n");
+        out.append(" * A parser instance is not thread-safe; use one parser per thread.\n");
+        out.append(" */\n");
+        out.append("public final class ").append(className).append(" {\n\n");
+
+        // symbol ordinals
+        out.append("    /** Ordinals of the grammar symbols. */\n");
+        out.append("    public static final class Symbols {\n");
+        for (int i = 0; i < table.symbolCount(); i++)
+            out.append("        public static final int ").append(table.symbolName(i)).append(" = ").append(i).append(";\n");
+        out.append("\n        private Symbols() {\n        }\n    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * Receives the steps taken by the parser, e.g. to build a syntax tree.\n");
+        out.append("     */\n");
+        out.append("    public interface Listener {\n");
+        out.append("        void shift(int position);\n\n");
+        out.append("        void reduce(int rule);\n");
+        out.append("    }\n\n");
+
+        out.append("    private static final int SHIFT = ").append(ParseTable.SHIFT).append(";\n");
+        out.append("    private static final int REDUCE = ").append(ParseTable.REDUCE).append(";\n");
+        out.append("    private static final int ACCEPT = ").append(ParseTable.ACCEPT).append(";\n");
+        out.append("    private static final int KIND_BITS = 3;\n");
+        out.append("    private static final int KIND_MASK = (1 << KIND_BITS) - 1;\n\n");
+        out.append("    private static final int EOF = ").append(table.eofSymbol()).append(";\n\n");
+
+        // rules
+        out.append("    // rule number -> length of the rule's rhs / ordinal of the rule's lhs\n");
+        int[] ruleSize = new int[table.ruleCount()];
+        int[] ruleStart = new int[table.ruleCount()];
+        for (int r = 0; r < table.ruleCount(); r++) {
+            ruleSize[r] = table.ruleSize(r);
+            ruleStart[r] = table.ruleStart(r);
+        }
+        out.append("    private static final int[] RULE_SIZE = ");
+        appendInts(out, ruleSize);
+        out.append(";\n");
+        out.append("    private static final int[] RULE_START = ");
+        appendInts(out, ruleStart);
+        out.append(";\n\n");
+
+        // parser state and entry points
+        out.append("    private Listener listener;\n");
+        out.append("    private int[] stack = new int[64];\n");
+        out.append("    private int top;\n");
+        out.append("    private int errorPosition = -1;\n\n");
+        out.append("    public void setListener(final Listener listener) {\n");
+        out.append("        this.listener = listener;\n");
+        out.append("    }\n\n");
+        out.append("    /**\n");
+        out.append("     * Parse a sequence of tokens given by their symbol ordinals. An\n");
+        out.append("     *  end-of-input token is supplied after the last token.\n");
+        out.append("     *\n");
+        out.append("     * @return true if the input is accepted, false on a syntax error\n");
+        out.append("     */\n");
+        out.append("    public boolean parse(final int[] tokens, final int length) {\n");
+        out.append("        top = 0;\n");
+        out.append("        stack[0] = 0;\n");
+        out.append("        errorPosition = -1;\n");
+        out.append("        for (int i = 0; i <= length; i++) {\n");
+        out.append("            int lookahead = i < length ? tokens[i] : EOF;\n");
+        out.append("            while (true) {\n");
+        out.append("                int cell = action(stack[top], lookahead);\n");
+        out.append("                int kind = cell & KIND_MASK;\n");
+        out.append("                if (kind == SHIFT) {\n");
+        out.append("                    push(cell >>> KIND_BITS);\n");
+        out.append("                    if (listener != null) listener.shift(i);\n");
+        out.append("                    break;\n");
+        out.append("                } else if (kind == REDUCE) {\n");
+        out.append("                    int rule = cell >>> KIND_BITS;\n");
+        out.append("                    top -= RULE_SIZE[rule];\n");
+        out.append("                    push(goTo(stack[top], RULE_START[rule]));\n");
+        out.append("                    if (listener != null) listener.reduce(rule);\n");
+        out.append("                } else if (kind == ACCEPT) {\n");
+        out.append("                    // tokens after the end-of-input token are an error\n");
+        out.append("                    if (i >= length - 1) return true;\n");
+        out.append("                    errorPosition = i + 1;\n");
+        out.append("                    return false;\n");
+        out.append("                } else {\n");
+        out.append("                    errorPosition = i;\n");
+        out.append("                    return false;\n");
+        out.append("                }\n");
+        out.append("            }\n");
+        out.append("            if (lookahead == EOF) break;\n");
+        out.append("        }\n");
+        out.append("        errorPosition = length;\n");
+        out.append("        return false;\n");
+        out.append("    }\n\n");
+        out.append("    /**\n");
+        out.append("     * @return the input position of the token that caused the last syntax\n");
+        out.append("     *  error, or -1 if the last parse succeeded\n");
+        out.append("     */\n");
+        out.append("    public int errorPosition() {\n");
+        out.append("        return errorPosition;\n");
+        out.append("    }\n\n");
+        out.append("    private void push(final int state) {\n");
+        out.append("        if (++top == stack.length)\n");
+        out.append("            stack = java.util.Arrays.copyOf(stack, stack.length * 2);\n");
+        out.append("        stack[top] = state;\n");
+        out.append("    }\n\n");
+        out.append("    // decodes an int array written as two chars per int, high half first\n");
+        out.append("    private static int[] ints(final String[] chunks) {\n");
+        out.append("        StringBuilder chars = new StringBuilder();\n");
+        out.append("        for (String chunk : chunks)\n");
+        out.append("            chars.append(chunk);\n");
+        out.append("        int[] values = new int[chars.length() / 2];\n");
+        out.append("        for (int i = 0; i < values.length; i++)\n");
+        out.append("            values[i] = chars.charAt(2 * i) << 16 | chars.charAt(2 * i + 1);\n");
+        out.append("        return values;\n");
+        out.append("    }\n\n");
+
+        // action dispatch: one small method per state
+        SortedMap<Integer, String> states = new TreeMap<>();
+        for (int s = 0; s < table.stateCount(); s++)
+            states.put(s, "s" + s + "(lookahead)");
+        appendSwitch(out, "action", "final int state, final int lookahead", "state", "state, lookahead", states, "0");
+        for (int s = 0; s < table.stateCount(); s++) {
+            Map<Integer, Integer> reduces = new HashMap<>();
+            for (int t : terminals) {
+                int cell = table.action(s, t);
+                if (ParseTable.kind(cell) == ParseTable.REDUCE)
+                    reduces.merge(cell, 1, Integer::sum);
+            }
+            int defaultCell = CompressedParseTable.mostCommon(reduces, ParseTable.ERROR);
+
+            SortedMap<Integer, String> cells = new TreeMap<>();
+            for (int t : terminals) {
+                int cell = table.action(s, t);
+                // an error made by precedence must not fall back to the
+                // default reduce
+                if (cell == ParseTable.ERROR && !table.isPrecedenceError(s, t) || cell == defaultCell) continue;
+                cells.put(t, cell + "; // " + table.symbolName(t) + ": " + ParseTable.unpack(cell));
+            }
+            appendSwitch(out, "s" + s, "final int lookahead", "lookahead", "lookahead", cells, String.valueOf(defaultCell));
+        }
+
+        // goto dispatch: one method per non-terminal
+        SortedMap<Integer, String> symbols = new TreeMap<>();
+        for (int a : nonTerminals)
+            symbols.put(a, "g" + a + "(state); // " + table.symbolName(a));
+        appendSwitch(out, "goTo", "final int state, final int nonTerminal", "nonTerminal", "state, nonTerminal", symbols, "-1");
+        for (int a : nonTerminals) {
+            Map<Integer, Integer> targets = new HashMap<>();
+            for (int s = 0; s < table.stateCount(); s++) {
+                int cell = table.action(s, a);
+                if (ParseTable.kind(cell) == ParseTable.GOTO)
+                    targets.merge(ParseTable.target(cell), 1, Integer::sum);
+            }
+            int defaultTarget = CompressedParseTable.mostCommon(targets, -1);
+
+            SortedMap<Integer, String> gotos = new TreeMap<>();
+            for (int s = 0; s < table.stateCount(); s++) {
+                int cell = table.action(s, a);
+                if (ParseTable.kind(cell) != ParseTable.GOTO || ParseTable.target(cell) == defaultTarget) continue;
+                gotos.put(s, ParseTable.target(cell) + ";");
+            }
+            appendSwitch(out, "g" + a, "final int state", "state", "state", gotos, String.valueOf(defaultTarget));
+        }
+
+        // rules, for readers of the generated code
+        out.append("    /*\n");
+        for (int r = 0; r < table.ruleCount(); r++)
+            out.append("     * r").append(r).append(": ").append(grammar.ruleString(r)).append("\n");
+        out.append("     */\n");
+        out.append("}\n");
+        return out.toString();
+    }
+
+    /**
+     * Write a method returning the value of the case matching a key, or a
+     *  default. With more than {@link #CHUNK} cases, the method switches on
+     *  the key's block and calls a method per block, named after the method
+     *  with the block number appended.
+     *
+     * @param name the name of the method
+     * @param parameters the method's parameter list
+     * @param key the parameter to switch on
+     * @param arguments the parameters passed on to a block's method
+     * @param cases the returned expression for each key, as a statement
+     *              ending in a semicolon and possibly a comment, or as an
+     *              expression with no semicolon
+     * @param defaultValue the value returned for every other key
+     */
+    private static void appendSwitch(final StringBuilder out, final String name, final String parameters, final String key,
+                                     final String arguments, final SortedMap<Integer, String> cases, final String defaultValue) {
+        if (cases.size() <= CHUNK) {
+            out.append("    private static int ").append(name).append("(").append(parameters).append(") {\n");
+            out.append("        switch (").append(key).append(") {\n");
+            for (Map.Entry<Integer, String> c : cases.entrySet()) {
+                String value = c.getValue();
+                out.append("            case ").append(c.getKey()).append(": return ").append(value).append(value.contains(";") ? "" : ";").append("\n");
+            }
+            out.append("            default: return ").append(defaultValue).append(";\n");
+            out.append("        }\n");
+            out.append("    }\n\n");
+            return;
+        }
+
+        SortedMap<Integer, SortedMap<Integer, String>> blocks = new TreeMap<>();
+        for (Map.Entry<Integer, String> c : cases.entrySet())
+            blocks.computeIfAbsent(c.getKey() / CHUNK, b -> new TreeMap<>()).put(c.getKey(), c.getValue());
+        SortedMap<Integer, String> calls = new TreeMap<>();
+        for (int block : blocks.keySet())
+            calls.put(block, name + "_" + block + "(" + arguments + ")");
+        appendSwitch(out, name, parameters, key + " / " + CHUNK, arguments, calls, defaultValue);
+        for (Map.Entry<Integer, SortedMap<Integer, String>> block : blocks.entrySet())
+            appendSwitch(out, name + "_" + block.getKey(), parameters, key, arguments, block.getValue(), defaultValue);
+    }
+
+    /**
+     * Write an expression decoding an int array from string literals, with
+     *  each int as two chars, high half first. Chars are written as escapes
+     *  that are never turned into line breaks or quotes in the source.
+     */
+    private static void appendInts(final StringBuilder out, final int[] values) {
+        out.append("ints(new String[]{");
+        for (int i = 0; i < values.length; i += STRING_INTS) {
+            out.append(i == 0 ? " \"" : ", \"");
+            for (int j = i; j < Math.min(values.length, i + STRING_INTS); j++) {
+                appendChar(out, (char) (values[j] >>> 16));
+                appendChar(out, (char) values[j]);
+            }
+            out.append('"');
+        }
+        out.append(" })");
+    }
+
+    private static void appendChar(final StringBuilder out, final char c) {
+        // an octal escape is at most three digits, so a following digit is
+        // never read as part of it; unicode escapes would be translated
+        // before the literal is parsed
+        if (c < 0x100)
+            out.append(String.format("\\%03o", (int) c));
+        else
+            out.append(String.format("\\u%04x", (int) c));
+    }
+}
@@ -0,0 +1,222 @@
+package com.noahmpauls.compilers.generator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Yacc-style precedence and associativity declarations, used to resolve
+ *  shift/reduce conflicts so ambiguous grammars such as
+ *  {@code E -> E + E | E * E | id} give small tables without being
+ *  stratified into one non-terminal per precedence level.
+ *
+ * Each of {@link #left}, {@link #right} and {@link #nonAssoc} declares its
+ *  terminals on a new level that binds tighter than every level declared
+ *  before it, like successive %left, %right and %nonassoc lines. A rule has
+ *  the precedence of the last terminal in its rhs, unless it is given the
+ *  precedence of another terminal with {@link #rule}, like %prec.
+ *
+ * A conflict between shifting terminal t and reducing by rule r is decided
+ *  if both t and r have a precedence: the higher one wins, and on a tie
+ *  left associativity reduces, right associativity shifts and
+ *  nonassociativity makes the cell an error. Other conflicts are recorded
+ *  as {@link Conflict}s and settled as in yacc: the shift is kept, and of
+ *  several reduces the one by the rule listed first.
+ */
+public class Precedence {
+
+    public static void main(String[] args) {
+        // E -> E + E | E * E | - E | ( E ) | literal, with unary minus
+        // binding tighter than *
+        Grammar<ConcreteType> grammar = new Grammar<>(Arrays.asList(
+                new Production<>(ConcreteType.START, new ConcreteType[]{ ConcreteType.EXPR, ConcreteType.EOF }),
+                new Production<>(ConcreteType.EXPR, new ConcreteType[]{ ConcreteType.EXPR, ConcreteType.PLUS, ConcreteType.EXPR }),
+                new Production<>(ConcreteType.EXPR, new ConcreteType[]{ ConcreteType.EXPR, ConcreteType.STAR, ConcreteType.EXPR }),
+                new Production<>(ConcreteType.EXPR, new ConcreteType[]{ ConcreteType.MINUS, ConcreteType.EXPR }),
+                new Production<>(ConcreteType.EXPR, new ConcreteType[]{ ConcreteType.L_PAREN, ConcreteType.EXPR, ConcreteType.R_PAREN }),
+                new Production<>(ConcreteType.EXPR, new ConcreteType[]{ ConcreteType.LITERAL })
+        ));
+
+        ParseTable<ConcreteType> ambiguous = com.noahmpauls.compilers.generator.lalr.ParserGenerator.createParseTable(grammar, 0, ConcreteType.EOF);
+        for (Conflict conflict : ambiguous.conflicts())
+            System.out.println(conflict);
+
+        Precedence precedence = new Precedence()
+                .left(Arrays.asList(ConcreteType.PLUS))
+                .left(Arrays.asList(ConcreteType.STAR))
+                .right(Arrays.asList(ConcreteType.BANG))
+                .rule(3, ConcreteType.BANG);
+        ParseTable<ConcreteType> table = com.noahmpauls.compilers.generator.lalr.ParserGenerator.createParseTable(grammar, 0, ConcreteType.EOF, precedence);
+        System.out.println(table.conflicts().size() + " conflicts in " + table.stateCount() + " states");
+        System.out.println(com.noahmpauls.compilers.generator.lrzero.ParserGenerator.visualizeTable(table, grammar));
+    }
+
+    public enum Associativity {
+        LEFT,
+        RIGHT,
+        NONASSOC
+    }
+
+    // terminal number -> its level, counting from 1, and associativity
+    private final Map<Integer, Integer> levels = new HashMap<>();
+    private final Map<Integer, Associativity> associativities = new HashMap<>();
+    // rule number -> the terminal whose precedence it takes
+    private final Map<Integer, Integer> rules = new HashMap<>();
+    private int levelCount;
+
+    /**
+     * Declare left-associative terminals on a new, highest level.
+     *
+     * @param terminals the numbers of the terminals
+     * @return this
+     */
+    public Precedence left(final int... terminals) {
+        return declare(Associativity.LEFT, terminals);
+    }
+
+    /**
+     * Declare right-associative terminals on a new, highest level.
+     *
+     * @param terminals the numbers of the terminals
+     * @return this
+     */
+    public Precedence right(final int... terminals) {
+        return declare(Associativity.RIGHT, terminals);
+    }
+
+    /**
+     * Declare nonassociative terminals on a new, highest level.
+     *
+     * @param terminals the numbers of the terminals
+     * @return this
+     */
+    public Precedence nonAssoc(final int... terminals) {
+        return declare(Associativity.NONASSOC, terminals);
+    }
+
+    public <E extends Enum<E>> Precedence left(final List<E> terminals) {
+        return declare(Associativity.LEFT, ordinals(terminals));
+    }
+
+    public <E extends Enum<E>> Precedence right(final List<E> terminals) {
+        return declare(Associativity.RIGHT, ordinals(terminals));
+    }
+
+    public <E extends Enum<E>> Precedence nonAssoc(final List<E> terminals) {
+        return declare(Associativity.NONASSOC, ordinals(terminals));
+    }
+
+    /**
+     * Declare terminals on a new level, higher than every level before it.
+     *
+     * @throws IllegalArgumentException if a terminal already has a level
+     */
+    public Precedence declare(final Associativity associativity, final int... terminals) {
+        levelCount++;
+        for (int terminal : terminals) {
+            if (levels.containsKey(terminal))
+                throw new IllegalArgumentException("terminal " + terminal + " already has a precedence");
+            levels.put(terminal, levelCount);
+            associativities.put(terminal, associativity);
+        }
+        return this;
+    }
+
+    /**
+     * Give a rule the precedence of a terminal instead of that of the last
+     *  terminal in its rhs.
+     *
+     * @param rule the rule number
+     * @param terminal the number of the terminal, which need not occur in
+     *                 the grammar
+     * @return this
+     */
+    public Precedence rule(final int rule, final int terminal) {
+        rules.put(rule, terminal);
+        return this;
+    }
+
+    public <E extends Enum<E>> Precedence rule(final int rule, final E terminal) {
+        return rule(rule, terminal.ordinal());
+    }
+
+    private static <E extends Enum<E>> int[] ordinals(final List<E> symbols) {
+        int[] ordinals = new int[symbols.size()];
+        for (int i = 0; i < ordinals.length; i++)
+            ordinals[i] = symbols.get(i).ordinal();
+        return ordinals;
+    }
+
+    /**
+     * @return the level of a terminal, where higher levels bind tighter, or
+     *  0 if it has none
+     */
+    public int level(final int terminal) {
+        return levels.getOrDefault(terminal, 0);
+    }
+
+    /**
+     * @return the associativity of a terminal, or null if it has no level
+     */
+    public Associativity associativity(final int terminal) {
+        return associativities.get(terminal);
+    }
+
+    /**
+     * @return the terminal whose precedence a rule takes: the one given by
+     *  {@link #rule}, else the last terminal in its rhs, else -1
+     */
+    public int ruleTerminal(final IntGrammar grammar, final int rule) {
+        Integer terminal = rules.get(rule);
+        if (terminal != null)
+            return terminal;
+        for (int i = grammar.ruleSize(rule) - 1; i >= 0; i--) {
+            int symbol = grammar.ruleSymbol(rule, i);
+            if (grammar.isTerminal(symbol))
+                return symbol;
+        }
+        return -1;
+    }
+
+    /**
+     * Decide between two actions put into the same cell, if one shifts and
+     *  the other reduces and both the terminal and the rule have a
+     *  precedence.
+     *
+     * @param grammar the grammar the table parses
+     * @param terminal the number of the terminal (column) of the cell
+     * @param existing the packed action the cell holds
+     * @param added the packed action being put into the cell
+     * @return the packed action to keep, {@link IntParseTable#ERROR} for a
+     *  nonassociative tie, or -1 if precedence does not decide
+     */
+    public int resolve(final IntGrammar grammar, final int terminal, final int existing, final int added) {
+        int shift, reduce;
+        if (IntParseTable.kind(existing) == IntParseTable.SHIFT && IntParseTable.kind(added) == IntParseTable.REDUCE) {
+            shift = existing;
+            reduce = added;
+        } else if (IntParseTable.kind(existing) == IntParseTable.REDUCE && IntParseTable.kind(added) == IntParseTable.SHIFT) {
+            shift = added;
+            reduce = existing;
+        } else {
+            return -1;
+        }
+
+        int shiftLevel = level(terminal);
+        int ruleTerminal = ruleTerminal(grammar, IntParseTable.target(reduce));
+        int reduceLevel = ruleTerminal < 0 ? 0 : level(ruleTerminal);
+        if (shiftLevel == 0 || reduceLevel == 0)
+            return -1;
+        if (reduceLevel != shiftLevel)
+            return reduceLevel > shiftLevel ? reduce : shift;
+        switch (associativity(terminal)) {
+            case LEFT:
+                return reduce;
+            case RIGHT:
+                return shift;
+            default:
+                return IntParseTable.ERROR;
+        }
+    }
+}
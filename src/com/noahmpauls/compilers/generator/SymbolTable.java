@@ -0,0 +1,69 @@
+package com.noahmpauls.compilers.generator;
+
+import java.util.*;
+
+/**
+ * The names of a grammar's symbols, numbered densely from 0 in the order
+ *  they are interned. Symbol numbers index every per-symbol array of an
+ *  {@link IntGrammar} and every column of a parse table.
+ */
+public class SymbolTable {
+
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    /**
+     * Create a table of the constants of an enum, where each constant's
+     *  number is its ordinal.
+     *
+     * @param symbols the enum type of the grammar symbols
+     * @param <E> the enum type of the grammar symbols
+     * @return the table of the enum's constant names
+     */
+    public static <E extends Enum<E>> SymbolTable of(final Class<E> symbols) {
+        SymbolTable table = new SymbolTable();
+        for (E symbol : symbols.getEnumConstants())
+            table.intern(symbol.name());
+        return table;
+    }
+
+    /**
+     * Get the number of a symbol, adding it to the table if it is new.
+     *
+     * @param name the symbol's name
+     * @return the symbol's number
+     */
+    public int intern(final String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            names.add(name);
+            ids.put(name, id);
+        }
+        return id;
+    }
+
+    /**
+     * @return the number of the symbol with the given name, or -1 if there
+     *  is none
+     */
+    public int id(final String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @return the name of the symbol with the given number
+     */
+    public String name(final int id) {
+        return names.get(id);
+    }
+
+    /**
+     * @return the number of symbols in the table, i.e. one more than the
+     *  largest symbol number
+     */
+    public int size() {
+        return names.size();
+    }
+}
@@ -0,0 +1,346 @@
+package com.noahmpauls.compilers.generator;
+
+import java.util.*;
+
+/**
+ * A randomly generated grammar of a chosen shape, for testing and
+ *  benchmarking the generators at sizes the hand-written grammars never
+ *  reach. The same arguments and seed always give the same grammar.
+ *
+ * The grammar is built from:
+ *
+ * <ul>
+ *     <li>START -> N0 EOF, where START is rule 0; START -> E0 EOF for a
+ *      grammar with no non-terminals but the ladder</li>
+ *     <li>non-terminals N0 - Nn-1 and terminals t0 - tm-1; every Ni has a
+ *      rule over terminals and non-terminals Nj, j &gt; i, so every
+ *      non-terminal derives some string and is reachable from N0</li>
+ *     <li>Ni -> [empty] for a chosen fraction of the non-terminals</li>
+ *     <li>left or right recursion through a cycle of a chosen number of
+ *      non-terminals, e.g. Ni -> Ni+1 t, Ni+1 -> Ni t for depth 2</li>
+ *     <li>an expression precedence ladder E0 - Ek, where
+ *      Ei -> Ei OPi Ei+1 | Ei+1 and Ek -> L_PAREN E0 R_PAREN | ID, used
+ *      from one of the non-terminals</li>
+ * </ul>
+ *
+ * Random grammars are usually not LR(1), so tables built for them will
+ *  have conflicts.
+ */
+public class SyntheticGrammar {
+
+    public static void main(String[] args) {
+        SyntheticGrammar synthetic = generate(2000, 200, 0.1, 0.2, 3, 8, 42);
+        IntGrammar grammar = synthetic.grammar();
+        System.out.println(grammar.symbolCount() + " symbols, " + grammar.ruleCount() + " rules, " + grammar.itemCount() + " items");
+
+        long start = System.nanoTime();
+        IntParseTable table = com.noahmpauls.compilers.generator.lalr.ParserGenerator.createParseTable(grammar, synthetic.startRule(), synthetic.eof());
+        System.out.println("LALR(1): " + table.stateCount() + " states in " + (System.nanoTime() - start) / 1000000 + " ms");
+
+        int[] tokens = synthetic.tokens(100000, new Random(42));
+        System.out.println(tokens.length + " tokens, ending in " + grammar.symbols().name(tokens[tokens.length - 1]));
+
+        // a grammar that is only a precedence ladder is LR(1), so its tables
+        // accept every generated sentence
+        SyntheticGrammar ladder = generate(0, 0, 0, 0, 1, 16, 42);
+        LRParser<?> parser = new LRParser<>(com.noahmpauls.compilers.generator.lalr.ParserGenerator.createParseTable(ladder.grammar(), ladder.startRule(), ladder.eof()));
+        int[] sentence = ladder.tokens(100000, new Random(42));
+        System.out.println(sentence.length + " ladder tokens, accepted " + parser.parse(sentence, sentence.length));
+    }
+
+    private final IntGrammar grammar;
+    private final int eof;
+
+    private SyntheticGrammar(final IntGrammar grammar, final int eof) {
+        this.grammar = grammar;
+        this.eof = eof;
+    }
+
+    /**
+     * Generate a grammar.
+     *
+     * @param nonTerminals the number of non-terminals N0 - Nn-1, not
+     *                     counting START and the ladder
+     * @param terminals the number of terminals t0 - tm-1, not counting EOF
+     *                  and the ladder's terminals
+     * @param epsilonRatio the fraction of non-terminals given an empty rule
+     * @param recursionRatio the fraction of non-terminals that are made left
+     *                       or right recursive, each with equal chance
+     * @param recursionDepth the number of non-terminals on each recursive
+     *                       cycle; at least 1
+     * @param precedenceLevels the number of binary operator levels in the
+     *                         precedence ladder, or 0 for no ladder
+     * @param seed the seed of the random choices
+     * @return the grammar
+     * @throws IllegalArgumentException if the grammar would have no
+     *  non-terminal for START to derive, or a rule with no terminal to use
+     */
+    public static SyntheticGrammar generate(final int nonTerminals, final int terminals, final double epsilonRatio,
+                                            final double recursionRatio, final int recursionDepth,
+                                            final int precedenceLevels, final long seed) {
+        if (nonTerminals == 0 && precedenceLevels == 0)
+            throw new IllegalArgumentException("grammar needs non-terminals or a precedence ladder");
+        if (nonTerminals > 0 && terminals == 0)
+            throw new IllegalArgumentException("non-terminals need terminals");
+        if (recursionDepth < 1 || recursionDepth > Math.max(1, nonTerminals))
+            throw new IllegalArgumentException("recursion depth must be from 1 to the number of non-terminals");
+
+        Random random = new Random(seed);
+        SymbolTable symbols = new SymbolTable();
+        int startSymbol = symbols.intern("START");
+        int eof = symbols.intern("EOF");
+        int[] n = new int[nonTerminals];
+        for (int i = 0; i < nonTerminals; i++)
+            n[i] = symbols.intern("N" + i);
+        int[] t = new int[terminals];
+        for (int i = 0; i < terminals; i++)
+            t[i] = symbols.intern("t" + i);
+
+        // rhs lists, by non-terminal index
+        List<List<List<Integer>>> rules = new ArrayList<>();
+        for (int i = 0; i < nonTerminals; i++)
+            rules.add(new ArrayList<>());
+
+        // each Ni, i > 0, is a child of some Nj, j < i; Nj's first rule uses
+        // all of its children, which makes every Ni reachable from N0
+        List<List<Integer>> children = new ArrayList<>();
+        for (int i = 0; i < nonTerminals; i++) {
+            children.add(new ArrayList<>());
+            if (i > 0)
+                children.get(random.nextInt(i)).add(n[i]);
+        }
+        for (int i = 0; i < nonTerminals; i++) {
+            List<Integer> rhs = new ArrayList<>(children.get(i));
+            int extra = rhs.isEmpty() ? 1 + random.nextInt(3) : random.nextInt(3);
+            for (int k = 0; k < extra; k++)
+                rhs.add(random.nextInt(rhs.size() + 1), t[random.nextInt(terminals)]);
+            rules.get(i).add(rhs);
+        }
+
+        // further rules over terminals and later non-terminals
+        for (int i = 0; i < nonTerminals; i++) {
+            int count = random.nextInt(3);
+            for (int k = 0; k < count; k++) {
+                List<Integer> rhs = new ArrayList<>();
+                int size = 1 + random.nextInt(4);
+                for (int j = 0; j < size; j++) {
+                    if (i + 1 < nonTerminals && random.nextBoolean())
+                        rhs.add(n[i + 1 + random.nextInt(nonTerminals - i - 1)]);
+                    else
+                        rhs.add(t[random.nextInt(terminals)]);
+                }
+                rules.get(i).add(rhs);
+            }
+            if (random.nextDouble() < epsilonRatio)
+                rules.get(i).add(new ArrayList<>());
+        }
+
+        // Ni -> Ni+1 t, ..., Ni+d-1 -> Ni t for left recursion, or
+        // Ni -> t Ni+1, ..., Ni+d-1 -> t Ni for right recursion
+        for (int i = 0; i < nonTerminals; i++) {
+            if (random.nextDouble() >= recursionRatio) continue;
+            boolean left = random.nextBoolean();
+            for (int k = 0; k < recursionDepth; k++) {
+                int from = (i + k) % nonTerminals;
+                int to = (i + (k + 1) % recursionDepth) % nonTerminals;
+                int terminal = t[random.nextInt(terminals)];
+                rules.get(from).add(left ? Arrays.asList(n[to], terminal) : Arrays.asList(terminal, n[to]));
+            }
+        }
+
+        List<int[]> result = new ArrayList<>();
+        int top;
+        if (precedenceLevels > 0) {
+            int[] e = new int[precedenceLevels + 1];
+            for (int i = 0; i <= precedenceLevels; i++)
+                e[i] = symbols.intern("E" + i);
+            int[] op = new int[precedenceLevels];
+            for (int i = 0; i < precedenceLevels; i++)
+                op[i] = symbols.intern("OP" + i);
+            int lParen = symbols.intern("L_PAREN");
+            int rParen = symbols.intern("R_PAREN");
+            int id = symbols.intern("ID");
+
+            if (nonTerminals > 0) {
+                List<Integer> user = rules.get(random.nextInt(nonTerminals)).get(0);
+                user.add(random.nextInt(user.size() + 1), e[0]);
+                top = n[0];
+            } else {
+                top = e[0];
+            }
+            result.add(new int[]{ startSymbol, top, eof });
+            for (int i = 0; i < precedenceLevels; i++) {
+                result.add(new int[]{ e[i], e[i], op[i], e[i + 1] });
+                result.add(new int[]{ e[i], e[i + 1] });
+            }
+            result.add(new int[]{ e[precedenceLevels], lParen, e[0], rParen });
+            result.add(new int[]{ e[precedenceLevels], id });
+        } else {
+            top = n[0];
+            result.add(new int[]{ startSymbol, top, eof });
+        }
+
+        for (int i = 0; i < nonTerminals; i++) {
+            for (List<Integer> rhs : rules.get(i)) {
+                int[] rule = new int[rhs.size() + 1];
+                rule[0] = n[i];
+                for (int k = 0; k < rhs.size(); k++)
+                    rule[k + 1] = rhs.get(k);
+                result.add(rule);
+            }
+        }
+
+        return new SyntheticGrammar(new IntGrammar(symbols, result), eof);
+    }
+
+    public IntGrammar grammar() {
+        return grammar;
+    }
+
+    /**
+     * @return the rule to build state 0 from, START -> N0 EOF or
+     *  START -> E0 EOF
+     */
+    public int startRule() {
+        return 0;
+    }
+
+    /**
+     * @return the number of the end-of-input symbol
+     */
+    public int eof() {
+        return eof;
+    }
+
+    /**
+     * Generate a random sentence of the grammar.
+     *
+     * @see #sentence(IntGrammar, int, int, Random)
+     */
+    public int[] tokens(final int length, final Random random) {
+        return sentence(grammar, startRule(), length, random);
+    }
+
+    /**
+     * Generate a random sentence of a grammar by expanding the rhs of a
+     *  rule. Expansion prefers longer rules while the sentence is shorter
+     *  than the given length, then finishes every open non-terminal along
+     *  its shortest derivation, so the sentence is at most the given length
+     *  (or the shortest the rule derives, if longer). Grammars with little
+     *  recursion give sentences well short of the length.
+     *
+     * @param grammar the grammar to derive from
+     * @param startRule the rule whose rhs to expand, e.g. START -> S EOF
+     * @param length the number of tokens to aim for
+     * @param random the source of the choices between rules
+     * @return the terminal numbers of the sentence
+     * @throws IllegalArgumentException if the rule's rhs derives no string
+     *  of terminals
+     */
+    public static int[] sentence(final IntGrammar grammar, final int startRule, final int length, final Random random) {
+        int symbolCount = grammar.symbolCount();
+        int ruleCount = grammar.ruleCount();
+
+        // minLength[s] is the length of the shortest string s derives, or
+        // MAX_VALUE if s derives no string, found by iterating to a fixed
+        // point; ruleLength[r] is the same for the rhs of rule r
+        int[] minLength = new int[symbolCount];
+        for (int s = 0; s < symbolCount; s++)
+            minLength[s] = grammar.isTerminal(s) ? 1 : Integer.MAX_VALUE;
+        int[] ruleLength = new int[ruleCount];
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int r = 0; r < ruleCount; r++) {
+                long sum = 0;
+                for (int i = 0; i < grammar.ruleSize(r); i++)
+                    sum += minLength[grammar.ruleSymbol(r, i)];
+                ruleLength[r] = (int) Math.min(sum, Integer.MAX_VALUE);
+                int start = grammar.ruleStart(r);
+                if (ruleLength[r] < minLength[start]) {
+                    minLength[start] = ruleLength[r];
+                    changed = true;
+                }
+            }
+        }
+
+        // shortest[s] is the rule of s at the root of the lowest derivation
+        // tree of a shortest string of s. Following shortest rules lowers
+        // the height at every step, so it always finishes.
+        int[] height = new int[symbolCount];
+        int[] shortest = new int[symbolCount];
+        for (int s = 0; s < symbolCount; s++)
+            height[s] = grammar.isTerminal(s) ? 0 : Integer.MAX_VALUE;
+        changed = true;
+        while (changed) {
+            changed = false;
+            for (int r = 0; r < ruleCount; r++) {
+                int start = grammar.ruleStart(r);
+                if (ruleLength[r] != minLength[start]) continue;
+                int ruleHeight = 0;
+                for (int i = 0; i < grammar.ruleSize(r); i++)
+                    ruleHeight = Math.max(ruleHeight, height[grammar.ruleSymbol(r, i)]);
+                if (ruleHeight != Integer.MAX_VALUE && ruleHeight + 1 < height[start]) {
+                    height[start] = ruleHeight + 1;
+                    shortest[start] = r;
+                    changed = true;
+                }
+            }
+        }
+
+        int[] stack = new int[64];
+        int top = 0;
+        long pending = 0;
+        for (int i = grammar.ruleSize(startRule) - 1; i >= 0; i--) {
+            int symbol = grammar.ruleSymbol(startRule, i);
+            if (height[symbol] == Integer.MAX_VALUE)
+                throw new IllegalArgumentException("rule " + startRule + " derives no string");
+            stack[top++] = symbol;
+            pending += minLength[symbol];
+        }
+
+        int[] sentence = new int[Math.max(16, Math.min(length + 1, 1024))];
+        int size = 0;
+        int[] candidates = new int[16];
+        while (top > 0) {
+            int symbol = stack[--top];
+            pending -= minLength[symbol];
+            if (grammar.isTerminal(symbol)) {
+                if (size == sentence.length)
+                    sentence = Arrays.copyOf(sentence, sentence.length * 2);
+                sentence[size++] = symbol;
+                continue;
+            }
+
+            // the tokens symbol can take up without the sentence going over
+            // length once every open symbol is finished as short as it can be
+            long budget = length - size - pending;
+            int rule = shortest[symbol];
+            if (budget > minLength[symbol]) {
+                int count = 0;
+                for (int k = 0; k < grammar.startRuleCount(symbol); k++) {
+                    int r = grammar.startRule(symbol, k);
+                    if (ruleLength[r] <= budget) {
+                        if (count == candidates.length)
+                            candidates = Arrays.copyOf(candidates, count * 2);
+                        candidates[count++] = r;
+                    }
+                }
+                // the longer of two random candidates
+                int a = candidates[random.nextInt(count)];
+                int b = candidates[random.nextInt(count)];
+                rule = ruleLength[a] >= ruleLength[b] ? a : b;
+            }
+
+            int ruleSize = grammar.ruleSize(rule);
+            if (top + ruleSize > stack.length)
+                stack = Arrays.copyOf(stack, Math.max(stack.length * 2, top + ruleSize));
+            for (int i = ruleSize - 1; i >= 0; i--) {
+                int next = grammar.ruleSymbol(rule, i);
+                stack[top++] = next;
+                pending += minLength[next];
+            }
+        }
+        return Arrays.copyOf(sentence, size);
+    }
+}
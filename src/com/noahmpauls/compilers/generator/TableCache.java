@@ -0,0 +1,174 @@
+package com.noahmpauls.compilers.generator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * A directory of generated parse tables, keyed by a fingerprint of
+ *  everything that determines a table: the productions in rule-number
+ *  order, the symbol names in number order, the start rule, the
+ *  end-of-input symbol and the generator used. State numbering is
+ *  deterministic, so equal fingerprints always mean equal tables.
+ *
+ * On a hit the table is memory-mapped from the cache, so a hit costs the
+ *  fingerprint and a {@link MappedParseTable#load(Path)}. On a miss the
+ *  table is generated and written to the cache first. Files are written
+ *  under a temporary name and moved into place, so concurrent builds
+ *  sharing a directory never see a partial file.
+ */
+public class TableCache {
+
+    public static void main(String[] args) throws IOException {
+        Grammar<S3> grammar = new Grammar<>(Arrays.asList(
+                new Production<>(S3.SP, new S3[]{ S3.S, S3.EOP }),
+                new Production<>(S3.S, new S3[]{ S3.V, S3.EQ, S3.E }),
+                new Production<>(S3.S, new S3[]{ S3.E }),
+                new Production<>(S3.E, new S3[]{ S3.V }),
+                new Production<>(S3.V, new S3[]{ S3.x }),
+                new Production<>(S3.V, new S3[]{ S3.STAR, S3.E })
+        ));
+
+        TableCache cache = new TableCache(Files.createTempDirectory("tables"));
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            PackedTable table = cache.get(grammar, 0, S3.EOP, Generator.LALR);
+            System.out.println(cache.fingerprint(grammar, 0, S3.EOP, Generator.LALR) + " loaded in " + (System.nanoTime() - start) / 1000 + " us");
+            System.out.println(new LRParser<S3>(table).parse(new S3[]{ S3.STAR, S3.x, S3.EQ, S3.x, S3.EOP }));
+        }
+    }
+
+    /**
+     * The parser generators whose tables can be cached.
+     */
+    public enum Generator {
+        /** {@link com.noahmpauls.compilers.generator.lrzero.ParserGenerator} in LR(0) mode */
+        LR0,
+        /** {@link com.noahmpauls.compilers.generator.lrzero.ParserGenerator} in SLR mode */
+        SLR,
+        /** {@link com.noahmpauls.compilers.generator.lrone.ParserGenerator} in canonical mode */
+        LR1,
+        /** {@link com.noahmpauls.compilers.generator.lalr.ParserGenerator} */
+        LALR
+    }
+
+    // bump when a change to the generators changes the tables they produce
+    private static final int GENERATOR_REVISION = 2;
+
+    private final Path directory;
+
+    /**
+     * @param directory the cache directory; created if it does not exist
+     */
+    public TableCache(final Path directory) {
+        this.directory = directory;
+    }
+
+    public <E extends Enum<E>> PackedTable get(final Grammar<E> grammar, final int start, final E eof, final Generator generator) throws IOException {
+        return get(grammar.ints(), start, eof.ordinal(), generator);
+    }
+
+    /**
+     * Get the parse table for a grammar, generating and storing it if it is
+     *  not in the cache.
+     *
+     * @param grammar the grammar to get a table for
+     * @param start the rule to being state 0 from
+     * @param eof the number of the end-of-input symbol
+     * @param generator the generator to create the table with on a miss
+     * @return the table
+     * @throws IOException if the cache directory cannot be written
+     */
+    public PackedTable get(final IntGrammar grammar, final int start, final int eof, final Generator generator) throws IOException {
+        Path file = directory.resolve(fingerprint(grammar, start, eof, generator) + ".lrt");
+        if (Files.exists(file)) {
+            try {
+                MappedParseTable table = MappedParseTable.load(file);
+                table.checkSymbols(grammar);
+                return table;
+            } catch (IOException | RuntimeException e) {
+                // unreadable, corrupt or stale; a corrupt file can fail with
+                // any buffer or index exception, so regenerate it below
+            }
+        }
+
+        CompressedParseTable table = new CompressedParseTable(generate(grammar, start, eof, generator));
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "table", ".tmp");
+        try {
+            table.write(temporary);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return table;
+    }
+
+    private static IntParseTable generate(final IntGrammar grammar, final int start, final int eof, final Generator generator) {
+        switch (generator) {
+            case LR0:
+                return com.noahmpauls.compilers.generator.lrzero.ParserGenerator.createParseTable(grammar, start, eof,
+                        com.noahmpauls.compilers.generator.lrzero.ParserGenerator.Mode.LR0);
+            case SLR:
+                return com.noahmpauls.compilers.generator.lrzero.ParserGenerator.createParseTable(grammar, start, eof,
+                        com.noahmpauls.compilers.generator.lrzero.ParserGenerator.Mode.SLR);
+            case LR1:
+                return com.noahmpauls.compilers.generator.lrone.ParserGenerator.createParseTable(grammar, start, eof,
+                        com.noahmpauls.compilers.generator.lrone.ParserGenerator.Mode.CANONICAL, GenerationListener.NONE, 1);
+            default:
+                return com.noahmpauls.compilers.generator.lalr.ParserGenerator.createParseTable(grammar, start, eof);
+        }
+    }
+
+    public <E extends Enum<E>> String fingerprint(final Grammar<E> grammar, final int start, final E eof, final Generator generator) {
+        return fingerprint(grammar.ints(), start, eof.ordinal(), generator);
+    }
+
+    /**
+     * Compute the cache key of a table.
+     *
+     * @return the SHA-256 of the table's inputs, in hex
+     */
+    public String fingerprint(final IntGrammar grammar, final int start, final int eof, final Generator generator) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        // symbol names may contain any character, so every field is
+        // prefixed with its length, and every list with its size, so
+        // different inputs never concatenate the same way
+        StringBuilder key = new StringBuilder();
+        field(key, MappedParseTable.VERSION);
+        field(key, GENERATOR_REVISION);
+        SymbolTable symbols = grammar.symbols();
+        field(key, generator.name());
+        field(key, start);
+        field(key, symbols.name(eof));
+        field(key, grammar.symbolCount());
+        for (int s = 0; s < grammar.symbolCount(); s++)
+            field(key, symbols.name(s));
+        field(key, grammar.ruleCount());
+        for (int r = 0; r < grammar.ruleCount(); r++) {
+            field(key, symbols.name(grammar.ruleStart(r)));
+            field(key, grammar.ruleSize(r));
+            for (int i = 0; i < grammar.ruleSize(r); i++)
+                field(key, symbols.name(grammar.ruleSymbol(r, i)));
+        }
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest(key.toString().getBytes(StandardCharsets.UTF_8)))
+            hex.append(String.format("%02x", b));
+        return hex.toString();
+    }
+
+    private static void field(final StringBuilder key, final Object value) {
+        String text = String.valueOf(value);
+        key.append(text.length()).append(':').append(text);
+    }
+}
@@ -0,0 +1,72 @@
+package com.noahmpauls.compilers.generator;
+
+import java.util.Arrays;
+
+/**
+ * The GOTO transitions of an LR automaton, stored in a single growable int
+ *  array indexed by state and symbol ordinal. Missing transitions are -1.
+ */
+public class Transitions {
+
+    private final int width;
+    private int stateCount;
+    private int[] targets;
+
+    /**
+     * @param width the number of symbols, i.e. one more than the largest
+     *              symbol ordinal
+     */
+    public Transitions(final int width) {
+        this.width = width;
+        this.stateCount = 0;
+        this.targets = new int[16 * width];
+    }
+
+    /**
+     * Add a state with no transitions.
+     *
+     * @return the index of the new state
+     */
+    public int addState() {
+        if ((stateCount + 1) * width > targets.length)
+            targets = Arrays.copyOf(targets, targets.length * 2);
+        Arrays.fill(targets, stateCount * width, (stateCount + 1) * width, -1);
+        return stateCount++;
+    }
+
+    /**
+     * Record the transition from one state to another on reading a symbol.
+     *
+     * @param from the state to transition from
+     * @param symbol the ordinal of the symbol read
+     * @param to the state to transition to
+     */
+    public void put(final int from, final int symbol, final int to) {
+        targets[from * width + symbol] = to;
+    }
+
+    /**
+     * Find GOTO(from, symbol).
+     *
+     * @param from the state to transition from
+     * @param symbol the ordinal of the symbol read
+     * @return the state transitioned to, or -1 if there is no transition
+     */
+    public int get(final int from, final int symbol) {
+        return targets[from * width + symbol];
+    }
+
+    /**
+     * @return the number of states
+     */
+    public int stateCount() {
+        return stateCount;
+    }
+
+    /**
+     * @return the number of symbols
+     */
+    public int width() {
+        return width;
+    }
+}
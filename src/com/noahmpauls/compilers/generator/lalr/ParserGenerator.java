@@ -0,0 +1,316 @@
+package com.noahmpauls.compilers.generator.lalr;
+
+import com.noahmpauls.compilers.generator.*;
+import com.noahmpauls.compilers.generator.lrzero.Automaton;
+import com.noahmpauls.compilers.generator.lrzero.ItemSet;
+
+import java.util.*;
+
+/**
+ * Generates an LALR(1) parsing table by computing lookaheads directly on the
+ *  LR(0) automaton, using the reads/includes/lookback relations of DeRemer
+ *  and Pennello ("Efficient Computation of LALR(1) Look-Ahead Sets", 1982).
+ */
+public class ParserGenerator {
+
+    public static void main(String[] args) {
+        Grammar<S3> grammar = new Grammar<>(Arrays.asList(
+                new Production<>(S3.SP, new S3[]{ S3.S, S3.EOP }),
+                new Production<>(S3.S, new S3[]{ S3.V, S3.EQ, S3.E }),
+                new Production<>(S3.S, new S3[]{ S3.E }),
+                new Production<>(S3.E, new S3[]{ S3.V }),
+                new Production<>(S3.V, new S3[]{ S3.x }),
+                new Production<>(S3.V, new S3[]{ S3.STAR, S3.E })
+        ));
+
+        ParseTable<S3> table = createParseTable(grammar, 0, S3.EOP);
+        System.out.println(com.noahmpauls.compilers.generator.lrzero.ParserGenerator.visualizeTable(table, grammar));
+    }
+
+    public static <E extends Enum<E>> ParseTable<E> createParseTable(final Grammar<E> grammar, final int start, E eof) {
+        return createParseTable(grammar, start, eof, GenerationListener.NONE);
+    }
+
+    public static <E extends Enum<E>> ParseTable<E> createParseTable(final Grammar<E> grammar, final int start, E eof, final GenerationListener listener) {
+        return new ParseTable<>(createParseTable(grammar.ints(), start, eof.ordinal(), listener), eof);
+    }
+
+    public static <E extends Enum<E>> ParseTable<E> createParseTable(final Grammar<E> grammar, final int start, E eof, final Precedence precedence) {
+        return new ParseTable<>(createParseTable(grammar.ints(), start, eof.ordinal(), precedence, GenerationListener.NONE), eof);
+    }
+
+    public static <E extends Enum<E>> ParseTable<E> createParseTable(final Automaton automaton, E eof) {
+        return new ParseTable<>(createParseTable(automaton, eof.ordinal()), eof);
+    }
+
+    /**
+     * Create an LALR(1) parse table for the inputted grammar.
+     *
+     * @param grammar a list of rules where indices correspond to rule
+     *                numbers; a reduce action will specify the index of the
+     *                rule to reduce by
+     * @param start the rule to being state 0 from
+     * @param eof the number of the end-of-input symbol
+     * @return a parse table whose rows correspond to the states of the LR(0)
+     *  automaton and whose columns correspond to the grammar symbols
+     */
+    public static IntParseTable createParseTable(final IntGrammar grammar, final int start, final int eof) {
+        return createParseTable(grammar, start, eof, GenerationListener.NONE);
+    }
+
+    /**
+     * Create an LALR(1) parse table for the inputted grammar, reporting the
+     *  run to a listener.
+     *
+     * @see #createParseTable(IntGrammar, int, int)
+     */
+    public static IntParseTable createParseTable(final IntGrammar grammar, final int start, final int eof, final GenerationListener listener) {
+        return createParseTable(grammar, start, eof, new Precedence(), listener);
+    }
+
+    /**
+     * Create an LALR(1) parse table for the inputted grammar, resolving
+     *  shift/reduce conflicts by precedence.
+     *
+     * @see #createParseTable(Automaton, int, Precedence, GenerationListener)
+     */
+    public static IntParseTable createParseTable(final IntGrammar grammar, final int start, final int eof,
+                                                 final Precedence precedence, final GenerationListener listener) {
+        long startTime = System.nanoTime();
+        IntParseTable table = createParseTable(
+                com.noahmpauls.compilers.generator.lrzero.ParserGenerator.createAutomaton(grammar, start, eof, listener), eof, precedence, listener);
+        listener.generationTime(System.nanoTime() - startTime);
+        return table;
+    }
+
+    /**
+     * Create an LALR(1) parse table from the LR(0) automaton of a grammar,
+     *  e.g. one updated after an edit with
+     *  {@link com.noahmpauls.compilers.generator.lrzero.ParserGenerator#updateAutomaton}.
+     *
+     * @param automaton the LR(0) automaton of the grammar
+     * @param eof the number of the end-of-input symbol
+     * @return a parse table whose rows correspond to the automaton's states
+     *  and whose columns correspond to the grammar symbols
+     */
+    public static IntParseTable createParseTable(final Automaton automaton, final int eof) {
+        return createParseTable(automaton, eof, GenerationListener.NONE);
+    }
+
+    /**
+     * Create an LALR(1) parse table from the LR(0) automaton of a grammar,
+     *  reporting the time spent on lookaheads and on the table to a listener.
+     *
+     * @see #createParseTable(Automaton, int)
+     */
+    public static IntParseTable createParseTable(final Automaton automaton, final int eof, final GenerationListener listener) {
+        return createParseTable(automaton, eof, new Precedence(), listener);
+    }
+
+    /**
+     * Create an LALR(1) parse table from the LR(0) automaton of a grammar.
+     *  Shift/reduce conflicts are resolved by precedence where it is
+     *  declared; every other conflict is recorded in the table's
+     *  {@link IntParseTable#conflicts()} and settled as yacc does, by
+     *  keeping the shift, or the reduce by the rule listed first.
+     *
+     * @param automaton the LR(0) automaton of the grammar
+     * @param eof the number of the end-of-input symbol
+     * @param precedence the precedence of the grammar's terminals and rules
+     * @param listener receives the time spent on lookaheads and on the table
+     * @return a parse table whose rows correspond to the automaton's states
+     *  and whose columns correspond to the grammar symbols
+     */
+    public static IntParseTable createParseTable(final Automaton automaton, final int eof,
+                                                 final Precedence precedence, final GenerationListener listener) {
+        long startTime = System.nanoTime();
+        final IntGrammar grammar = automaton.grammar();
+        Transitions transitions = automaton.transitions();
+        final int width = grammar.symbolCount();
+
+        // number the non-terminal transitions (p, A); these are the nodes of
+        // the reads and includes relations
+        List<Integer> fromStates = new ArrayList<>();
+        List<Integer> fromSymbols = new ArrayList<>();
+        int[] transitionIndex = new int[automaton.stateCount() * width];
+        Arrays.fill(transitionIndex, -1);
+        for (int p = 0; p < automaton.stateCount(); p++) {
+            for (int symbol = 0; symbol < width; symbol++) {
+                if (grammar.startRuleCount(symbol) == 0 || transitions.get(p, symbol) < 0) continue;
+                transitionIndex[p * width + symbol] = fromStates.size();
+                fromStates.add(p);
+                fromSymbols.add(symbol);
+            }
+        }
+        final int n = fromStates.size();
+
+        // DR(p, A) holds the terminals read right after GOTO(p, A); (p, A)
+        // reads (r, C) if r = GOTO(p, A) and C is nullable
+        BitSet[] directReads = new BitSet[n];
+        List<List<Integer>> reads = new ArrayList<>();
+        for (int x = 0; x < n; x++) {
+            int r = transitions.get(fromStates.get(x), fromSymbols.get(x));
+            directReads[x] = new BitSet(width);
+            ItemSet state = automaton.items(r);
+            for (int k = 0; k < state.size(); k++) {
+                int next = grammar.itemNext(state.get(k));
+                if (next >= 0 && grammar.startRuleCount(next) == 0)
+                    directReads[x].set(next);
+            }
+            List<Integer> readsX = new ArrayList<>();
+            for (int symbol = 0; symbol < width; symbol++) {
+                if (grammar.startRuleCount(symbol) > 0 && grammar.nullable(symbol) && transitions.get(r, symbol) >= 0)
+                    readsX.add(transitionIndex[r * width + symbol]);
+            }
+            reads.add(readsX);
+        }
+        BitSet[] read = digraph(toArrays(reads), directReads);
+
+        // (q, A) includes (p, B) if B -> bAc, c is nullable and reading b
+        // leads from p to q
+        List<List<Integer>> includes = new ArrayList<>();
+        for (int x = 0; x < n; x++)
+            includes.add(new ArrayList<>());
+        for (int y = 0; y < n; y++) {
+            int symbolY = fromSymbols.get(y);
+            for (int k = 0; k < grammar.startRuleCount(symbolY); k++) {
+                int rule = grammar.startRule(symbolY, k);
+                int q = fromStates.get(y);
+                for (int i = 0; i < grammar.ruleSize(rule) && q >= 0; i++) {
+                    int symbol = grammar.ruleSymbol(rule, i);
+                    if (grammar.startRuleCount(symbol) > 0 && grammar.suffixNullable(grammar.item(rule, i + 1)))
+                        includes.get(transitionIndex[q * width + symbol]).add(y);
+                    q = transitions.get(q, symbol);
+                }
+            }
+        }
+        BitSet[] follow = digraph(toArrays(includes), read);
+
+        // (q, A -> w) looks back to (p, A) if reading w leads from p to q;
+        // the lookaheads of the reduction are the union of Follow(p, A)
+        List<Map<Integer, BitSet>> lookaheads = new ArrayList<>();
+        for (int q = 0; q < automaton.stateCount(); q++)
+            lookaheads.add(new HashMap<>());
+        for (int y = 0; y < n; y++) {
+            int symbolY = fromSymbols.get(y);
+            for (int k = 0; k < grammar.startRuleCount(symbolY); k++) {
+                int rule = grammar.startRule(symbolY, k);
+                int q = fromStates.get(y);
+                for (int i = 0; i < grammar.ruleSize(rule) && q >= 0; i++)
+                    q = transitions.get(q, grammar.ruleSymbol(rule, i));
+                if (q < 0) continue;
+                lookaheads.get(q).computeIfAbsent(rule, r -> new BitSet(width)).or(follow[y]);
+            }
+        }
+
+        long tableTime = System.nanoTime();
+        listener.phaseTime(GenerationListener.Phase.LOOKAHEADS, tableTime - startTime);
+
+        // create the parse table from the automaton's shifts and gotos;
+        // every other cell starts out as an error
+        IntParseTable parseTable = new IntParseTable(grammar, eof, transitions);
+
+        // add accepts and reduces
+        for (int i = 0; i < automaton.stateCount(); i++) {
+            ItemSet state = automaton.items(i);
+            for (int k = 0; k < state.size(); k++) {
+                int next = grammar.itemNext(state.get(k));
+                if (next == eof) {
+                    parseTable.putAction(i, next, ParseTable.pack(ParseTable.ACCEPT, 0), grammar, precedence);
+                }
+
+                if (next < 0) {
+                    int reduceRule = grammar.itemRule(state.get(k));
+                    BitSet lookahead = lookaheads.get(i).get(reduceRule);
+                    if (lookahead == null) continue;
+                    for (int t = lookahead.nextSetBit(0); t >= 0; t = lookahead.nextSetBit(t + 1))
+                        parseTable.putAction(i, t, ParseTable.pack(ParseTable.REDUCE, reduceRule), grammar, precedence);
+                }
+            }
+        }
+
+        listener.phaseTime(GenerationListener.Phase.TABLE, System.nanoTime() - tableTime);
+        return parseTable;
+    }
+
+    /**
+     * Solve F(x) = initial(x) U { F(y) | x R y } over a relation R, using the
+     *  SCC-based traversal of DeRemer and Pennello so that every node and edge
+     *  is visited once. Nodes in the same strongly connected component share
+     *  a result set.
+     *
+     * @param relation relation[x] lists every y such that x R y
+     * @param initial the initial set for each node; not modified
+     * @return the solution F for each node
+     */
+    private static BitSet[] digraph(final int[][] relation, final BitSet[] initial) {
+        final int n = initial.length;
+        BitSet[] result = new BitSet[n];
+        for (int x = 0; x < n; x++)
+            result[x] = (BitSet) initial[x].clone();
+
+        // depth[x] is 0 while unvisited and MAX_VALUE once x's SCC is done
+        int[] depth = new int[n];
+        int[] position = new int[n];
+        int[] stack = new int[n];
+        int stackSize = 0;
+
+        // explicit call stack of nodes being traversed and their next edge
+        int[] calls = new int[n];
+        int[] nextEdge = new int[n];
+        for (int root = 0; root < n; root++) {
+            if (depth[root] != 0) continue;
+            int callDepth = 0;
+            calls[callDepth] = root;
+            nextEdge[callDepth++] = 0;
+            stack[stackSize++] = root;
+            depth[root] = position[root] = stackSize;
+
+            while (callDepth > 0) {
+                int x = calls[callDepth - 1];
+                if (nextEdge[callDepth - 1] < relation[x].length) {
+                    int y = relation[x][nextEdge[callDepth - 1]++];
+                    if (depth[y] == 0) {
+                        calls[callDepth] = y;
+                        nextEdge[callDepth++] = 0;
+                        stack[stackSize++] = y;
+                        depth[y] = position[y] = stackSize;
+                    } else {
+                        depth[x] = Math.min(depth[x], depth[y]);
+                        result[x].or(result[y]);
+                    }
+                    continue;
+                }
+
+                // all of x's edges are done; pop its SCC if x is the root
+                callDepth--;
+                if (depth[x] == position[x]) {
+                    int top;
+                    do {
+                        top = stack[--stackSize];
+                        depth[top] = Integer.MAX_VALUE;
+                        result[top] = result[x];
+                    } while (top != x);
+                }
+                if (callDepth > 0) {
+                    int caller = calls[callDepth - 1];
+                    depth[caller] = Math.min(depth[caller], depth[x]);
+                    result[caller].or(result[x]);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static int[][] toArrays(final List<List<Integer>> relation) {
+        int[][] arrays = new int[relation.size()][];
+        for (int x = 0; x < relation.size(); x++) {
+            List<Integer> related = relation.get(x);
+            arrays[x] = new int[related.size()];
+            for (int i = 0; i < related.size(); i++)
+                arrays[x][i] = related.get(i);
+        }
+        return arrays;
+    }
+}
@@ -0,0 +1,98 @@
+package com.noahmpauls.compilers.generator.lrone;
+
+import com.noahmpauls.compilers.generator.GenerationListener;
+import com.noahmpauls.compilers.generator.IntGrammar;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Closures of LR(1) kernels computed during one generation run, keyed by the
+ *  kernel's LR(0) cores. Kernels that differ only in their lookaheads close
+ *  over the same cores, and every closure item's lookaheads are its
+ *  spontaneous lookaheads (from FIRST of the predicting items) plus the
+ *  lookaheads of the kernel items that propagate to it. Caching those two
+ *  parts lets one closure per set of cores serve every such kernel.
+ */
+class ClosureCache {
+
+    /**
+     * The closure of a set of kernel cores, independent of lookaheads.
+     */
+    private static class Closure {
+        // cores of the closure, in increasing order
+        final int[] cores;
+        // lookaheads each core gets regardless of the kernel's lookaheads
+        final BitSet[] spontaneous;
+        // indices of the kernel items whose lookaheads each core gets
+        final int[][] sources;
+
+        Closure(final int[] cores, final BitSet[] spontaneous, final int[][] sources) {
+            this.cores = cores;
+            this.spontaneous = spontaneous;
+            this.sources = sources;
+        }
+    }
+
+    private final IntGrammar grammar;
+    private final GenerationListener listener;
+    private final Map<com.noahmpauls.compilers.generator.lrzero.ItemSet, Closure> closures = new ConcurrentHashMap<>();
+
+    ClosureCache(final IntGrammar grammar, final GenerationListener listener) {
+        this.grammar = grammar;
+        this.listener = listener;
+    }
+
+    /**
+     * Safe to call from several threads at once; two threads missing on the
+     *  same cores may both compute the closure.
+     *
+     * @return CLOSURE(kernel), computed once per set of kernel cores
+     */
+    ItemSet closure(final ItemSet kernel) {
+        com.noahmpauls.compilers.generator.lrzero.ItemSet key = kernel.cores();
+        Closure closure = closures.get(key);
+        if (closure == null) {
+            closure = close(kernel);
+            closures.putIfAbsent(key, closure);
+        } else {
+            listener.closureHit();
+        }
+
+        BitSet[] lookaheads = new BitSet[closure.cores.length];
+        for (int i = 0; i < closure.cores.length; i++) {
+            lookaheads[i] = (BitSet) closure.spontaneous[i].clone();
+            for (int k : closure.sources[i])
+                kernel.addLookaheads(k, lookaheads[i]);
+        }
+        return ItemSet.of(closure.cores, lookaheads, closure.cores.length);
+    }
+
+    /**
+     * Close the kernel's cores with kernel item k given the single lookahead
+     *  symbolCount + k, which no grammar symbol uses. Where those markers
+     *  end up in the closure shows which kernel lookaheads propagate where.
+     */
+    private Closure close(final ItemSet kernel) {
+        final int symbolCount = grammar.symbolCount();
+        int[] kernelCores = new int[kernel.size()];
+        BitSet[] markers = new BitSet[kernel.size()];
+        for (int k = 0; k < kernel.size(); k++) {
+            kernelCores[k] = kernel.core(k);
+            markers[k] = new BitSet(symbolCount + kernel.size());
+            markers[k].set(symbolCount + k);
+        }
+        ItemSet marked = ParserGenerator.makeClosure(ItemSet.of(kernelCores, markers, kernel.size()), grammar, listener);
+
+        int[] cores = new int[marked.size()];
+        BitSet[] spontaneous = new BitSet[marked.size()];
+        int[][] sources = new int[marked.size()][];
+        for (int i = 0; i < marked.size(); i++) {
+            cores[i] = marked.core(i);
+            BitSet lookaheads = marked.lookaheads(i);
+            spontaneous[i] = lookaheads.get(0, symbolCount);
+            sources[i] = lookaheads.get(symbolCount, symbolCount + kernel.size()).stream().toArray();
+        }
+        return new Closure(cores, spontaneous, sources);
+    }
+}
@@ -112,6 +112,15 @@ public class Item<E extends Enum<E>> {
         return produces.subList(dot, produces.size());
     }
 
+    /**
+     * For item A -> a.Xb:
+     *
+     * @return the number of symbols in a, i.e. the position of the dot
+     */
+    public int dot() {
+        return dot;
+    }
+
     /**
      * For item A -> a.Xb:
      *
@@ -146,6 +155,15 @@ public class Item<E extends Enum<E>> {
         return new Production<E>(start, produces);
     }
 
+    /**
+     * For item [A -> a.B, T]:
+     *
+     * @return the LR(0) item A -> a.B, without the lookahead
+     */
+    public com.noahmpauls.compilers.generator.lrzero.Item<E> core() {
+        return new com.noahmpauls.compilers.generator.lrzero.Item<E>(start, produces, dot);
+    }
+
     @Override
     public boolean equals(Object that) {
         return that instanceof Item && sameValue((Item) that);
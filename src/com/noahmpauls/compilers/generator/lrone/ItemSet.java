@@ -0,0 +1,180 @@
+package com.noahmpauls.compilers.generator.lrone;
+
+import com.noahmpauls.compilers.generator.Grammar;
+
+import java.util.*;
+
+/**
+ * An immutable set of LR(1) items, stored as one entry per LR(0) core with
+ *  the set of that core's lookaheads. Entry i stands for every item
+ *  [A -> a.B, T] where A -> a.B is core(i) (an item number given by
+ *  {@link Grammar#item(int, int)}) and T is in lookaheads(i), a set of
+ *  symbol ordinals. Entries are sorted by core, so two sets are equal
+ *  exactly when they hold the same items.
+ */
+public class ItemSet {
+
+    private final int[] cores;
+    private final BitSet[] lookaheads;
+    private final int hash;
+
+    private ItemSet(final int[] cores, final BitSet[] lookaheads) {
+        this.cores = cores;
+        this.lookaheads = lookaheads;
+        this.hash = 31 * Arrays.hashCode(cores) + Arrays.hashCode(lookaheads);
+    }
+
+    /**
+     * Create a set from the first length entries of parallel arrays of
+     *  cores and lookahead sets. Entries may be unsorted, and lookaheads of
+     *  entries with the same core are unioned.
+     *
+     * @param cores the LR(0) item numbers; not modified
+     * @param lookaheads the lookahead ordinals of each core; not modified
+     * @param length the number of entries to read
+     * @return the set of items
+     */
+    public static ItemSet of(final int[] cores, final BitSet[] lookaheads, final int length) {
+        if (increasing(cores, length)) {
+            BitSet[] copies = new BitSet[length];
+            for (int i = 0; i < length; i++)
+                copies[i] = (BitSet) lookaheads[i].clone();
+            return new ItemSet(Arrays.copyOf(cores, length), copies);
+        }
+
+        Integer[] order = new Integer[length];
+        for (int i = 0; i < length; i++)
+            order[i] = i;
+        Arrays.sort(order, Comparator.comparingInt(i -> cores[i]));
+
+        int[] sortedCores = new int[length];
+        BitSet[] sortedLookaheads = new BitSet[length];
+        int unique = 0;
+        for (int i : order) {
+            if (unique > 0 && sortedCores[unique - 1] == cores[i]) {
+                sortedLookaheads[unique - 1].or(lookaheads[i]);
+            } else {
+                sortedCores[unique] = cores[i];
+                sortedLookaheads[unique++] = (BitSet) lookaheads[i].clone();
+            }
+        }
+        if (unique < length) {
+            sortedCores = Arrays.copyOf(sortedCores, unique);
+            sortedLookaheads = Arrays.copyOf(sortedLookaheads, unique);
+        }
+        return new ItemSet(sortedCores, sortedLookaheads);
+    }
+
+    private static boolean increasing(final int[] cores, final int length) {
+        for (int i = 1; i < length; i++) {
+            if (cores[i - 1] >= cores[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of distinct cores in the set
+     */
+    public int size() {
+        return cores.length;
+    }
+
+    /**
+     * @return the LR(0) item number of the ith core, in increasing order
+     */
+    public int core(final int i) {
+        return cores[i];
+    }
+
+    /**
+     * @return a copy of the lookahead ordinals of the ith core
+     */
+    public BitSet lookaheads(final int i) {
+        return (BitSet) lookaheads[i].clone();
+    }
+
+    /**
+     * Add the lookahead ordinals of the ith core to a set.
+     */
+    public void addLookaheads(final int i, final BitSet into) {
+        into.or(lookaheads[i]);
+    }
+
+    /**
+     * Iterate over the lookaheads of the ith core, as with
+     *  {@link BitSet#nextSetBit(int)}.
+     *
+     * @return the first lookahead ordinal of the ith core that is at least
+     *  from, or -1 if there is none
+     */
+    public int nextLookahead(final int i, final int from) {
+        return lookaheads[i].nextSetBit(from);
+    }
+
+    /**
+     * @return the set of the items' LR(0) cores
+     */
+    public com.noahmpauls.compilers.generator.lrzero.ItemSet cores() {
+        return com.noahmpauls.compilers.generator.lrzero.ItemSet.of(cores, cores.length);
+    }
+
+    /**
+     * @return the set holding the items of both this set and that set
+     */
+    public ItemSet union(final ItemSet that) {
+        int[] bothCores = Arrays.copyOf(this.cores, this.cores.length + that.cores.length);
+        System.arraycopy(that.cores, 0, bothCores, this.cores.length, that.cores.length);
+        BitSet[] bothLookaheads = Arrays.copyOf(this.lookaheads, bothCores.length);
+        System.arraycopy(that.lookaheads, 0, bothLookaheads, this.lookaheads.length, that.lookaheads.length);
+        return of(bothCores, bothLookaheads, bothCores.length);
+    }
+
+    /**
+     * Decode an item over a grammar.
+     *
+     * @param core the LR(0) item number
+     * @param lookahead the lookahead ordinal
+     */
+    public static <E extends Enum<E>> Item<E> decode(final int core, final int lookahead, final Grammar<E> grammar) {
+        return new Item<>(grammar.rule(grammar.itemRule(core)), grammar.itemDot(core), grammar.symbol(lookahead));
+    }
+
+    /**
+     * Decode this set into items of a grammar, one per core and lookahead.
+     */
+    public <E extends Enum<E>> Set<Item<E>> toItems(final Grammar<E> grammar) {
+        Set<Item<E>> decoded = new HashSet<>();
+        for (int i = 0; i < cores.length; i++) {
+            for (int t = nextLookahead(i, 0); t >= 0; t = nextLookahead(i, t + 1))
+                decoded.add(decode(cores[i], t, grammar));
+        }
+        return decoded;
+    }
+
+    @Override
+    public boolean equals(Object that) {
+        return that instanceof ItemSet && sameValue((ItemSet) that);
+    }
+
+    private boolean sameValue(ItemSet that) {
+        return this.hash == that.hash
+                && Arrays.equals(this.cores, that.cores)
+                && Arrays.equals(this.lookaheads, that.lookaheads);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("[");
+        for (int i = 0; i < cores.length; i++) {
+            if (i > 0)
+                result.append(", ");
+            result.append(cores[i]).append(lookaheads[i]);
+        }
+        return result.append("]").toString();
+    }
+}
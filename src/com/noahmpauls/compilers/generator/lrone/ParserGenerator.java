@@ -1,14 +1,36 @@
 package com.noahmpauls.compilers.generator.lrone;
 
 import com.noahmpauls.compilers.generator.Action;
+import com.noahmpauls.compilers.generator.Conflict;
+import com.noahmpauls.compilers.generator.GenerationListener;
+import com.noahmpauls.compilers.generator.GenerationMetrics;
 import com.noahmpauls.compilers.generator.Grammar;
+import com.noahmpauls.compilers.generator.IntGrammar;
+import com.noahmpauls.compilers.generator.IntParseTable;
+import com.noahmpauls.compilers.generator.ParseTable;
+import com.noahmpauls.compilers.generator.Precedence;
 import com.noahmpauls.compilers.generator.S3;
 import com.noahmpauls.compilers.generator.Production;
+import com.noahmpauls.compilers.generator.Transitions;
 import com.noahmpauls.compilers.generator.ConcreteType;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 public class ParserGenerator {
+
+    /**
+     * The kind of table to generate from the LR(1) collection of states.
+     */
+    public enum Mode {
+        /** one state per distinct LR(1) item set */
+        CANONICAL,
+        /** LR(1) states with identical LR(0) cores merged together */
+        LALR
+    }
+
     public static void main(String[] args) {
         Grammar<S3> grammar = new Grammar<>(Arrays.asList(
                 new Production<>(S3.SP, new S3[]{ S3.S, S3.EOP }),
@@ -19,7 +41,7 @@ public class ParserGenerator {
                 new Production<>(S3.V, new S3[]{ S3.STAR, S3.E })
         ));
 
-        //Map<Integer, Map<LRE, Action>> table = createParseTable(grammar, 0, LRE.EOP);
+        //ParseTable<S3> table = createParseTable(grammar, 0, LRE.EOP);
         //System.out.println(visualizeTable(table, grammar));
 
         Grammar<ConcreteType> grammar3 = new Grammar<>(Arrays.asList(
@@ -67,209 +89,410 @@ public class ParserGenerator {
 //                        new ConcreteType[]{ ConcreteType.OR})
         ));
 
-        Map<Integer, Map<ConcreteType, Action>> table3 = createParseTable(grammar3, 0, ConcreteType.EOF);
+        ParseTable<ConcreteType> table3 = createParseTable(grammar3, 0, ConcreteType.EOF, Mode.CANONICAL, GenerationListener.printStates(System.out));
         System.out.println(visualizeTable(table3, grammar3));
+
+        GenerationMetrics metrics = new GenerationMetrics();
+        ParseTable<ConcreteType> table4 = createParseTable(grammar3, 0, ConcreteType.EOF, Mode.LALR, metrics);
+        System.out.println(visualizeTable(table4, grammar3));
+        for (Conflict conflict : table4.conflicts())
+            System.out.println(conflict);
+        System.out.println(metrics);
+    }
+
+    public static <E extends Enum<E>> ParseTable<E> createParseTable(final Grammar<E> grammar, final int start, E eof) {
+        return createParseTable(grammar, start, eof, Mode.CANONICAL);
+    }
+
+    public static <E extends Enum<E>> ParseTable<E> createParseTable(final Grammar<E> grammar, final int start, E eof, final Mode mode) {
+        return createParseTable(grammar, start, eof, mode, GenerationListener.NONE);
+    }
+
+    public static <E extends Enum<E>> ParseTable<E> createParseTable(final Grammar<E> grammar, final int start, E eof, final Mode mode, final GenerationListener listener) {
+        return createParseTable(grammar, start, eof, mode, listener, 1);
+    }
+
+    public static <E extends Enum<E>> ParseTable<E> createParseTable(final Grammar<E> grammar, final int start, E eof, final Mode mode, final GenerationListener listener, final int threads) {
+        return new ParseTable<>(createParseTable(grammar.ints(), start, eof.ordinal(), mode, listener, threads), eof);
+    }
+
+    public static <E extends Enum<E>> ParseTable<E> createParseTable(final Grammar<E> grammar, final int start, E eof, final Mode mode, final Precedence precedence) {
+        return new ParseTable<>(createParseTable(grammar.ints(), start, eof.ordinal(), mode, precedence, GenerationListener.NONE, 1), eof);
+    }
+
+    public static IntParseTable createParseTable(final IntGrammar grammar, final int start, final int eof, final Mode mode, final GenerationListener listener, final int threads) {
+        return createParseTable(grammar, start, eof, mode, new Precedence(), listener, threads);
     }
 
     /**
      * Create a parse table for the inputted grammar.
      *
-     * @param grammar a list of productions where indices correspond to rule
+     * @param grammar a list of rules where indices correspond to rule
      *                numbers; a reduce action will specify the index of the
      *                rule to reduce by
      * @param start the rule to being state 0 from
-     * @param <E> the enum type used to index the parse table
-     * @return a parse table in the form of nested maps, where keys of the outer
-     *  map correspond to states s0 - sN and keys of the inner map correspond to
-     *  the desired grammar symbol.
+     * @param eof the number of the end-of-input symbol
+     * @param mode whether to keep the canonical LR(1) states or merge them
+     *             into LALR(1) states
+     * @param precedence resolves shift/reduce conflicts where it is
+     *                   declared; every other conflict is recorded in the
+     *                   table's {@link IntParseTable#conflicts()} and
+     *                   settled as yacc does, by keeping the shift, or the
+     *                   reduce by the rule listed first
+     * @param listener receives the counters and timings of this run, e.g. a
+     *                 {@link GenerationMetrics}, and the finished states if
+     *                 it wants them
+     * @param threads the number of threads to build states with; the table
+     *                is the same for any number of threads
+     * @return a parse table whose rows correspond to states s0 - sN and whose
+     *  columns correspond to the grammar symbols
      */
-    public static <E extends Enum<E>> Map<Integer, Map<E, Action>> createParseTable(final Grammar<E> grammar, final int start, E eof) {
+    public static IntParseTable createParseTable(final IntGrammar grammar, final int start, final int eof, final Mode mode,
+                                                 final Precedence precedence, final GenerationListener listener, final int threads) {
+        final long startTime = System.nanoTime();
+        ClosureCache closures = new ClosureCache(grammar, listener);
+
         // collections of items as states, where states.get(i) is state i
-        List<Set<Item<E>>> states = new ArrayList<>();
-        Set<Item<E>> startItem = new HashSet<>();
-        startItem.add(new Item<>(grammar.rule(start), eof));
-        states.add(makeClosure(startItem, grammar));
-
-        // map of symbols to pairs of states to transition between as a result
-        // of reading this symbol
-        Map<E, List<List<Integer>>> edges = new HashMap<>();
-
-        while(true) {
-            List<Set<Item<E>>> newStates = new ArrayList<>();
-            int newEdgeCount = 0;
-            for (int i = 0; i < states.size(); i++) {
-                Set<Item<E>> state = states.get(i);
-                for (Item<E> item : state) {
-                    if (item.remaining() == 0) continue;
-                    E symbol = item.first();
-                    // skip computing GOTO for EOF symbol
-                    if (symbol.equals(eof)) continue;
-
-                    // duplicate states could exist in "states" and this
-                    // iteration's "newStates", so check for them
-                    Set<Item<E>> newState = makeGoto(state, symbol, grammar);
-                    // record the state to transition to
-                    int stateIndex = stateIndex(states, newState);
-                    int newStateIndex = stateIndex(newStates, newState);
-                    if (newStateIndex >= 0) { // this has been found in this iteration
-                        stateIndex = states.size() + newStateIndex + 1;
-                    } else {
-                        if (stateIndex < 0) { // this is a new state!
-                            newStates.add(newState);
-                            stateIndex = states.size() + newStates.size();
+        List<ItemSet> states = new ArrayList<>();
+        BitSet startLookahead = new BitSet(grammar.symbolCount());
+        startLookahead.set(eof);
+        ItemSet startItem = ItemSet.of(new int[]{ grammar.item(start, 0) }, new BitSet[]{ startLookahead }, 1);
+        states.add(closures.closure(startItem));
+        listener.stateCreated(0, states.get(0).size());
+
+        // kernels of known states, mapped to their state index; a state's
+        // kernel determines its closure, so only new kernels are closed
+        Map<ItemSet, Integer> kernelIndex = new HashMap<>();
+        kernelIndex.put(startItem, 0);
+
+        // GOTO(i, symbol) for every state i, indexed by symbol number
+        Transitions transitions = new Transitions(grammar.symbolCount());
+        transitions.addState();
+
+        // states are expanded one frontier at a time, where a frontier is
+        // every state created while expanding the previous one. The GOTO
+        // kernels of a frontier's states are found concurrently, then new
+        // kernels are numbered in order of state and symbol, just as a
+        // one-state-at-a-time worklist would number them; the closures of
+        // the new states are then computed concurrently
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        try {
+            int frontierStart = 0;
+            while (frontierStart < states.size()) {
+                final int from = frontierStart;
+                final int frontierEnd = states.size();
+                final List<ItemSet> frontier = states;
+                Successors[] successors = new Successors[frontierEnd - from];
+                forEach(pool, successors.length, j -> successors[j] = successors(frontier.get(from + j), grammar, eof));
+
+                List<ItemSet> newKernels = new ArrayList<>();
+                for (int j = 0; j < successors.length; j++) {
+                    listener.goTos(successors[j].symbols.length);
+                    for (int t = 0; t < successors[j].symbols.length; t++) {
+                        ItemSet kernel = successors[j].kernels[t];
+                        Integer stateIndex = kernelIndex.get(kernel);
+                        if (stateIndex == null) { // this is a new state!
+                            stateIndex = transitions.addState();
+                            kernelIndex.put(kernel, stateIndex);
+                            newKernels.add(kernel);
+                        } else {
+                            listener.duplicateState();
                         }
-                    }
 
-                    List<Integer> newEdge = new ArrayList<>(Arrays.asList(i, stateIndex));
-                    if (!edgeExists(edges, newEdge, symbol)) {
-                        newEdgeCount++;
-                        if (!edges.containsKey(symbol))
-                            edges.put(symbol, new ArrayList<>());
-                        edges.get(symbol).add(newEdge);
+                        transitions.put(from + j, successors[j].symbols[t], stateIndex);
                     }
                 }
+
+                ItemSet[] closed = new ItemSet[newKernels.size()];
+                forEach(pool, closed.length, j -> closed[j] = closures.closure(newKernels.get(j)));
+                for (ItemSet state : closed) {
+                    listener.stateCreated(states.size(), state.size());
+                    states.add(state);
+                }
+                frontierStart = frontierEnd;
             }
+        } finally {
+            if (pool != null)
+                pool.shutdown();
+        }
 
-            if (newStates.size() == 0 && newEdgeCount == 0) break;
-            states.addAll(newStates);
+        long phaseStart = System.nanoTime();
+        listener.phaseTime(GenerationListener.Phase.AUTOMATON, phaseStart - startTime);
+
+        // (state, symbol) cells where the merge introduced a reduce/reduce
+        // conflict
+        List<int[]> mergeConflicts = new ArrayList<>();
+        if (mode == Mode.LALR) {
+            int[] merged = mergeCores(states, grammar, mergeConflicts);
+            Transitions mergedTransitions = new Transitions(transitions.width());
+            for (int i = 0; i < states.size(); i++)
+                mergedTransitions.addState();
+            for (int i = 0; i < merged.length; i++) {
+                for (int symbol = 0; symbol < transitions.width(); symbol++) {
+                    int j = transitions.get(i, symbol);
+                    if (j >= 0)
+                        mergedTransitions.put(merged[i], symbol, merged[j]);
+                }
+            }
+            transitions = mergedTransitions;
+            long mergeEnd = System.nanoTime();
+            listener.phaseTime(GenerationListener.Phase.MERGE, mergeEnd - phaseStart);
+            phaseStart = mergeEnd;
         }
 
-        for (int i = 0; i < states.size(); i++) {
-            System.out.println(i + " ---------------");
-            for (Item<E> item : states.get(i)){
-                System.out.println("  " + item.toString());
+        if (listener.wantsStates()) {
+            for (int i = 0; i < states.size(); i++) {
+                ItemSet state = states.get(i);
+                List<String> items = new ArrayList<>();
+                for (int k = 0; k < state.size(); k++) {
+                    for (int t = state.nextLookahead(k, 0); t >= 0; t = state.nextLookahead(k, t + 1))
+                        items.add(grammar.itemString(state.core(k)) + " (" + grammar.symbols().name(t) + ")");
+                }
+                listener.state(i, items);
             }
-            System.out.println("");
         }
 
-        // create the parse table; start with every state yielding an error
-        Set<E> terminals = grammar.terminals();
-        Set<E> nonTerminals = grammar.nonTerminals();
+        // create the parse table from the automaton's shifts and gotos;
+        // every other cell starts out as an error
+        IntParseTable parseTable = new IntParseTable(grammar, eof, transitions);
+        for (int[] cell : mergeConflicts)
+            parseTable.markMergeConflict(cell[0], cell[1]);
 
-        Map<Integer, Map<E, Action>> parseTable = new HashMap<>();
+        // add accepts and reduces
         for (int i = 0; i < states.size(); i++) {
-            parseTable.put(i, new HashMap<>());
-            for (E symbol : terminals)
-                parseTable.get(i).put(symbol, Action.error());
-            for (E symbol : nonTerminals)
-                parseTable.get(i).put(symbol, Action.error());
-        }
-
-        // add shifts and gotos
-        for (E symbol : edges.keySet()) {
-            List<List<Integer>> edgeList = edges.get(symbol);
-            for (List<Integer> itoj : edgeList) {
-                int i = itoj.get(0);
-                int j = itoj.get(1);
-                if (nonTerminals.contains(symbol)) {
-                    Action existingAction = parseTable.get(i).get(symbol);
-                    if (!existingAction.type.equals(Action.ActionType.ERROR) && !existingAction.type.equals(Action.ActionType.GOTO)) {
-                        System.out.println("rule conflict for state " + i + " symbol " + symbol.name() + ": replacing existing " + existingAction.type.name() + " with " + Action.ActionType.GOTO.name());
-                    }
-                    parseTable.get(i).put(symbol, Action.goTo(j));
-                } else {
-                    Action existingAction = parseTable.get(i).get(symbol);
-                    if (!existingAction.type.equals(Action.ActionType.ERROR) && !existingAction.type.equals(Action.ActionType.SHIFT)) {
-                        System.out.println("rule conflict for state " + i + " symbol " + symbol.name() + ": replacing existing " + existingAction.type.name() + " with " + Action.ActionType.SHIFT.name());
-                    }
-                    parseTable.get(i).put(symbol, Action.shift(j));
+            ItemSet state = states.get(i);
+            for (int k = 0; k < state.size(); k++) {
+                int next = grammar.itemNext(state.core(k));
+                if (next == eof) {
+                    parseTable.putAction(i, next, ParseTable.pack(ParseTable.ACCEPT, 0), grammar, precedence);
                 }
 
+                if (next < 0) {
+                    int reduceRule = grammar.itemRule(state.core(k));
+                    for (int t = state.nextLookahead(k, 0); t >= 0; t = state.nextLookahead(k, t + 1))
+                        parseTable.putAction(i, t, ParseTable.pack(ParseTable.REDUCE, reduceRule), grammar, precedence);
+                }
             }
         }
 
-        // add accepts and gotos
-        for (int i = 0; i < states.size(); i++) {
-            for (Item<E> item : states.get(i)) {
-                if (item.remaining() > 0 && item.first().equals(eof)) {
-                    Action existingAction = parseTable.get(i).get(eof);
-                    if (!existingAction.type.equals(Action.ActionType.ERROR) && !existingAction.type.equals(Action.ActionType.ACCEPT)) {
-                        System.out.println("rule conflict for state " + i + " symbol " + eof.name() + ": replacing existing " + existingAction.type.name() + " with " + Action.ActionType.ACCEPT.name());
-                    }
-                    parseTable.get(i).put(eof, Action.accept());
-                }
+        long endTime = System.nanoTime();
+        listener.phaseTime(GenerationListener.Phase.TABLE, endTime - phaseStart);
+        listener.generationTime(endTime - startTime);
+        return parseTable;
+    }
 
-                if (item.remaining() == 0) {
-                    int reduceRule = grammar.ruleNum(item.production());
-                    for (E symbol : terminals) {
-                        if (item.lookahead().equals(symbol)){
-                            Action existingAction = parseTable.get(i).get(symbol);
-                            if (!existingAction.type.equals(Action.ActionType.ERROR) && !existingAction.type.equals(Action.ActionType.REDUCE)) {
-                                System.out.println("rule conflict for state " + i + " symbol " + symbol.name() + ": replacing existing " + existingAction.type.name() + " with " + Action.ActionType.REDUCE.name());
-                            }
-                            parseTable.get(i).put(symbol, Action.reduce(reduceRule));
-                        }
+    /**
+     * The kernels of GOTO(state, X) for every symbol X that follows a dot in
+     *  a state, in increasing order of X.
+     */
+    private static final class Successors {
+        final int[] symbols;
+        final ItemSet[] kernels;
 
-                    }
-                }
+        Successors(final int[] symbols, final ItemSet[] kernels) {
+            this.symbols = symbols;
+            this.kernels = kernels;
+        }
+    }
+
+    /**
+     * Group a state's items by the symbol after the dot, moving the dot over
+     *  it to form the kernel of each GOTO. No GOTO is made on eof.
+     */
+    private static Successors successors(final ItemSet state, final IntGrammar grammar, final int eof) {
+        // sort the items that can shift by their next symbol, so that the
+        // items of each kernel are adjacent and keep their order
+        long[] bySymbol = new long[state.size()];
+        int n = 0;
+        for (int k = 0; k < state.size(); k++) {
+            int symbol = grammar.itemNext(state.core(k));
+            if (symbol < 0 || symbol == eof) continue;
+            bySymbol[n++] = ((long) symbol << 32) | k;
+        }
+        Arrays.sort(bySymbol, 0, n);
+
+        int[] symbols = new int[n];
+        ItemSet[] kernels = new ItemSet[n];
+        int count = 0;
+        int[] cores = new int[n];
+        BitSet[] lookaheads = new BitSet[n];
+        for (int first = 0, last; first < n; first = last) {
+            int symbol = (int) (bySymbol[first] >>> 32);
+            for (last = first; last < n && (int) (bySymbol[last] >>> 32) == symbol; last++) {
+                // the shifted item keeps all of the core's lookaheads
+                int k = (int) bySymbol[last];
+                cores[last - first] = state.core(k) + 1;
+                lookaheads[last - first] = state.lookaheads(k);
             }
+            symbols[count] = symbol;
+            kernels[count++] = ItemSet.of(cores, lookaheads, last - first);
         }
+        return new Successors(Arrays.copyOf(symbols, count), Arrays.copyOf(kernels, count));
+    }
 
-        return parseTable;
+    /**
+     * Run action for 0 to n - 1, on the pool's threads if there is a pool.
+     */
+    private static void forEach(final ForkJoinPool pool, final int n, final IntConsumer action) {
+        if (pool == null || n < 2) {
+            for (int i = 0; i < n; i++)
+                action.accept(i);
+            return;
+        }
+        pool.submit(() -> IntStream.range(0, n).parallel().forEach(action)).join();
     }
 
-    private static <E extends Enum<E>> int stateIndex(List<Set<Item<E>>> existing, Set<Item<E>> toAdd) {
-        for (int i = 0; i < existing.size(); i++) {
-            Set<Item<E>> state = existing.get(i);
-            if (state.equals(toAdd)) {
-                return i;
+    /**
+     * Merge states whose items have identical LR(0) cores, unioning their
+     *  lookaheads. The merged states replace the contents of states, keeping
+     *  the order in which each core first appeared. Reduce/reduce conflicts
+     *  that exist only because of the merge are collected, so the table can
+     *  mark them when it records its conflicts.
+     *
+     * @param states the canonical LR(1) states; replaced by the merged states
+     * @param grammar the grammar the states were built from
+     * @param introduced receives the merged state and symbol of each
+     *                   reduce/reduce conflict the merge introduced
+     * @return mapping from each original state index to its merged index
+     */
+    private static int[] mergeCores(final List<ItemSet> states, final IntGrammar grammar, final List<int[]> introduced) {
+        int[] merged = new int[states.size()];
+        List<ItemSet> mergedStates = new ArrayList<>();
+        Map<com.noahmpauls.compilers.generator.lrzero.ItemSet, Integer> byCore = new HashMap<>();
+        for (int i = 0; i < states.size(); i++) {
+            com.noahmpauls.compilers.generator.lrzero.ItemSet core = states.get(i).cores();
+            Integer index = byCore.get(core);
+            if (index == null) {
+                index = mergedStates.size();
+                byCore.put(core, index);
+                mergedStates.add(states.get(i));
+            } else {
+                mergedStates.set(index, mergedStates.get(index).union(states.get(i)));
+            }
+            merged[i] = index;
+        }
+
+        // a merged state has a new conflict on a symbol if it reduces by more
+        // than one rule there while none of its original states did
+        Set<List<Integer>> originalConflicts = new HashSet<>();
+        for (int i = 0; i < states.size(); i++) {
+            for (int symbol : reduceConflicts(states.get(i), grammar).keySet())
+                originalConflicts.add(Arrays.asList(merged[i], symbol));
+        }
+        for (int i = 0; i < mergedStates.size(); i++) {
+            for (int symbol : reduceConflicts(mergedStates.get(i), grammar).keySet()) {
+                if (!originalConflicts.contains(Arrays.asList(i, symbol)))
+                    introduced.add(new int[]{ i, symbol });
             }
         }
-        return -1;
+
+        states.clear();
+        states.addAll(mergedStates);
+        return merged;
     }
 
-    private static <E extends Enum<E>> boolean edgeExists(Map<E, List<List<Integer>>> existing, List<Integer> toAdd, E key) {
-        if (!existing.containsKey(key))
-            return false;
-        for (List<Integer> edge : existing.get(key)) {
-            if (edge.equals(toAdd))
-                return true;
+    /**
+     * Find the lookaheads on which a state can reduce by more than one rule.
+     *
+     * @return mapping from each such lookahead to the rules reduced on it
+     */
+    private static Map<Integer, Set<Integer>> reduceConflicts(final ItemSet state, final IntGrammar grammar) {
+        Map<Integer, Set<Integer>> reduces = new HashMap<>();
+        for (int k = 0; k < state.size(); k++) {
+            int core = state.core(k);
+            if (grammar.itemNext(core) >= 0) continue;
+            for (int t = state.nextLookahead(k, 0); t >= 0; t = state.nextLookahead(k, t + 1)) {
+                if (!reduces.containsKey(t))
+                    reduces.put(t, new TreeSet<>());
+                reduces.get(t).add(grammar.itemRule(core));
+            }
         }
-        return false;
+        reduces.values().removeIf(rules -> rules.size() < 2);
+        return reduces;
     }
 
     /**
-     * Create the closure of a set of items.
+     * Create the closure of a set of items. Items with the same core share
+     *  one entry, so lookaheads are propagated as whole sets: an entry is
+     *  revisited only when its lookahead set grows, and then passes its
+     *  lookaheads on to the items it predicts in one step.
      *
-     * @param items set of items
+     * @param kernel set of items
      * @param grammar the grammar to generate the closure from
-     * @param <E> the enum type of the grammar symbols
-     * @return CLOSURE(items)
+     * @param listener receives the number of entries visited
+     * @return CLOSURE(kernel)
      */
-    private static <E extends Enum<E>> Set<Item<E>> makeClosure(final Set<Item<E>> items, final Grammar<E> grammar) {
-        Set<Item<E>> closure = new HashSet<>(items);
-
-        while(true) {
-            Set<Item<E>> newItems = new HashSet<>();
-            for (Item<E> item : closure) {
-                if (item.remaining() == 0) continue;
-                // productions starting with next symbol
-                E start = item.first();
-                // create new items
-                Set<Production<E>> prods = grammar.withStart(start);
-                for (Production<E> prod : prods) {
-                    List<E> nextSymbols = item.shift().afterDot();
-                    nextSymbols.add(item.lookahead());
-                    for (E symbol : grammar.first(nextSymbols)) {
-                        newItems.add(new Item<>(prod, symbol));
+    static ItemSet makeClosure(final ItemSet kernel, final IntGrammar grammar, final GenerationListener listener) {
+        final int symbolCount = grammar.symbolCount();
+        int capacity = Math.max(16, kernel.size() * 2);
+        int[] cores = new int[capacity];
+        BitSet[] lookaheads = new BitSet[capacity];
+        int size = 0;
+        // entry[item] is the entry index of an item number plus one, or 0
+        int[] entry = new int[grammar.itemCount()];
+
+        // entries whose lookaheads have grown since they were last visited
+        Deque<Integer> worklist = new ArrayDeque<>();
+        boolean[] queued = new boolean[capacity];
+        for (int k = 0; k < kernel.size(); k++) {
+            cores[size] = kernel.core(k);
+            lookaheads[size] = kernel.lookaheads(k);
+            entry[kernel.core(k)] = size + 1;
+            worklist.add(size);
+            queued[size++] = true;
+        }
+
+        BitSet spontaneous = new BitSet(symbolCount);
+        int iterations = 0;
+        while (!worklist.isEmpty()) {
+            int k = worklist.poll();
+            iterations++;
+            queued[k] = false;
+            int core = cores[k];
+            // productions starting with next symbol
+            int start = grammar.itemNext(core);
+            if (start < 0 || grammar.startRuleCount(start) == 0) continue;
+
+            // for [A -> a.Xb, L] the new items get FIRST(b), and all of L if
+            // b is nullable
+            BitSet added = spontaneous;
+            added.clear();
+            grammar.addSuffixFirst(core + 1, added);
+            if (grammar.suffixNullable(core + 1))
+                added.or(lookaheads[k]);
+
+            // create new items, or grow the lookaheads of existing ones
+            for (int j = 0; j < grammar.startRuleCount(start); j++) {
+                int predicted = grammar.item(grammar.startRule(start, j), 0);
+                int p = entry[predicted] - 1;
+                boolean created = p < 0;
+                if (created) {
+                    if (size == cores.length) {
+                        cores = Arrays.copyOf(cores, size * 2);
+                        lookaheads = Arrays.copyOf(lookaheads, size * 2);
+                        queued = Arrays.copyOf(queued, size * 2);
                     }
+                    p = size++;
+                    cores[p] = predicted;
+                    lookaheads[p] = new BitSet(symbolCount);
+                    entry[predicted] = p + 1;
+                }
+                int before = lookaheads[p].cardinality();
+                lookaheads[p].or(added);
+                if (!created && lookaheads[p].cardinality() == before) continue;
+                if (!queued[p]) {
+                    worklist.add(p);
+                    queued[p] = true;
                 }
             }
-            // break if all "new" items are in closure already
-            if (closure.containsAll(newItems)) break;
-            closure.addAll(newItems);
         }
 
-        return closure;
+        listener.closureComputed(iterations);
+        return ItemSet.of(cores, lookaheads, size);
     }
 
-    private static <E extends Enum<E>> Set<Item<E>> makeGoto(final Set<Item<E>> items, final E symbol, final Grammar<E> grammar) {
-        Set<Item<E>> nextItems = new HashSet<>();
-        for (Item<E> item : items) {
-            if (item.remaining() > 0 && item.first().equals(symbol))
-                nextItems.add(item.shift());
-        }
-        return makeClosure(nextItems, grammar);
+    public static <E extends Enum<E>> String visualizeTable(final ParseTable<E> parseTable, final Grammar<E> grammar) {
+        return visualizeTable(parseTable.toMap(), grammar);
     }
 
     public static <E extends Enum<E>> String visualizeTable(final Map<Integer, Map<E, Action>> parseTable, final Grammar<E> grammar) {
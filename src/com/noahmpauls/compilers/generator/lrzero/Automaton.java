@@ -0,0 +1,72 @@
+package com.noahmpauls.compilers.generator.lrzero;
+
+import com.noahmpauls.compilers.generator.IntGrammar;
+import com.noahmpauls.compilers.generator.Transitions;
+
+import java.util.*;
+
+/**
+ * The LR(0) automaton of a grammar: its canonical collection of item sets
+ *  and the GOTO transitions between them. State 0 is the start state.
+ */
+public class Automaton {
+
+    private final IntGrammar grammar;
+    private final int start;
+    private final List<ItemSet> states;
+    private final Transitions transitions;
+
+    Automaton(final IntGrammar grammar, final int start, final List<ItemSet> states, final Transitions transitions) {
+        this.grammar = grammar;
+        this.start = start;
+        this.states = new ArrayList<>(states);
+        this.transitions = transitions;
+    }
+
+    /**
+     * @return the grammar the automaton was built for
+     */
+    public IntGrammar grammar() {
+        return grammar;
+    }
+
+    /**
+     * @return the rule state 0 was built from
+     */
+    public int startRule() {
+        return start;
+    }
+
+    /**
+     * @return the number of states in the automaton
+     */
+    public int stateCount() {
+        return states.size();
+    }
+
+    /**
+     * @return the items making up state i, as item numbers of the grammar
+     */
+    public ItemSet items(final int i) {
+        return states.get(i);
+    }
+
+    /**
+     * Find GOTO(state, symbol).
+     *
+     * @param state the state to transition from
+     * @param symbol the number of the symbol read
+     * @return the state transitioned to, or -1 if there is no transition
+     */
+    public int transition(final int state, final int symbol) {
+        return transitions.get(state, symbol);
+    }
+
+    /**
+     * @return the transitions between the automaton's states, indexed by
+     *  state and symbol number
+     */
+    public Transitions transitions() {
+        return transitions;
+    }
+}
@@ -100,6 +100,15 @@ public class Item<E extends Enum<E>> {
         return new ArrayList<>(produces);
     }
 
+    /**
+     * For item A -> a.Xb:
+     *
+     * @return the number of symbols in a, i.e. the position of the dot
+     */
+    public int dot() {
+        return dot;
+    }
+
     /**
      * For item A -> a.Xb:
      *
@@ -0,0 +1,95 @@
+package com.noahmpauls.compilers.generator.lrzero;
+
+import com.noahmpauls.compilers.generator.Grammar;
+
+import java.util.*;
+
+/**
+ * An immutable set of LR(0) items, each encoded as the item number given by
+ *  {@link com.noahmpauls.compilers.generator.IntGrammar#item(int, int)}. Items are kept in a sorted int array, so
+ *  two sets are equal exactly when their arrays are.
+ */
+public class ItemSet {
+
+    private final int[] items;
+    private final int hash;
+
+    private ItemSet(final int[] items) {
+        this.items = items;
+        this.hash = Arrays.hashCode(items);
+    }
+
+    /**
+     * Create a set from the first length entries of an array of item
+     *  numbers, which may be unsorted and contain duplicates.
+     *
+     * @param items the item numbers; not modified
+     * @param length the number of entries to read
+     * @return the set of items
+     */
+    public static ItemSet of(final int[] items, final int length) {
+        int[] sorted = Arrays.copyOf(items, length);
+        Arrays.sort(sorted);
+        int unique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (unique == 0 || sorted[i] != sorted[unique - 1])
+                sorted[unique++] = sorted[i];
+        }
+        return new ItemSet(unique == sorted.length ? sorted : Arrays.copyOf(sorted, unique));
+    }
+
+    /**
+     * Encode a set of items over a grammar.
+     */
+    public static <E extends Enum<E>> ItemSet of(final Set<Item<E>> items, final Grammar<E> grammar) {
+        int[] encoded = new int[items.size()];
+        int i = 0;
+        for (Item<E> item : items)
+            encoded[i++] = grammar.item(grammar.ruleNum(item.production()), item.dot());
+        return of(encoded, encoded.length);
+    }
+
+    /**
+     * @return the number of items in the set
+     */
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * @return the number of the ith item, in increasing order
+     */
+    public int get(final int i) {
+        return items[i];
+    }
+
+    /**
+     * Decode this set into items of a grammar.
+     */
+    public <E extends Enum<E>> Set<Item<E>> toItems(final Grammar<E> grammar) {
+        Set<Item<E>> decoded = new HashSet<>();
+        for (int item : items)
+            decoded.add(new Item<>(grammar.rule(grammar.itemRule(item)), grammar.itemDot(item)));
+        return decoded;
+    }
+
+    @Override
+    public boolean equals(Object that) {
+        return that instanceof ItemSet && sameValue((ItemSet) that);
+    }
+
+    private boolean sameValue(ItemSet that) {
+        return this.hash == that.hash
+                && Arrays.equals(this.items, that.items);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(items);
+    }
+}
@@ -9,6 +9,16 @@ import java.util.*;
  */
 public class ParserGenerator {
 
+    /**
+     * Which lookaheads a completed LR(0) item reduces on.
+     */
+    public enum Mode {
+        /** reduce on every terminal */
+        LR0,
+        /** reduce by A -> w only on the terminals in FOLLOW(A) */
+        SLR
+    }
+
     public static void main(String[] args) {
 
 
@@ -20,7 +30,7 @@ public class ParserGenerator {
                 new Production<>(S1.L, new S1[]{S1.L, S1.COMMA, S1.S})
         ));
 
-        Map<Integer, Map<S1, Action>> table = createParseTable(grammar, 0, S1.EOF);
+        ParseTable<S1> table = createParseTable(grammar, 0, S1.EOF);
         System.out.println(visualizeTable(table, grammar));
 
 
@@ -31,7 +41,7 @@ public class ParserGenerator {
                 new Production<>(S2.E, new S2[]{S2.X})
         ));
 
-        Map<Integer, Map<S2, Action>> table2 = createParseTable(grammar2, 0, S2.EOF);
+        ParseTable<S2> table2 = createParseTable(grammar2, 0, S2.EOF);
         System.out.println(visualizeTable(table2, grammar2));
 
 
@@ -84,186 +94,505 @@ public class ParserGenerator {
                         new ConcreteType[]{ ConcreteType.OR})
         ));
 
-        Map<Integer, Map<ConcreteType, Action>> table3 = createParseTable(grammar3, 0, ConcreteType.EOF);
+        ParseTable<ConcreteType> table3 = createParseTable(grammar3, 0, ConcreteType.EOF);
         System.out.println(visualizeTable(table3, grammar3));
+        for (Conflict conflict : table3.conflicts())
+            System.out.println(conflict);
+
+        ParseTable<S2> table4 = createParseTable(grammar2, 0, S2.EOF, Mode.SLR);
+        System.out.println(visualizeTable(table4, grammar2));
+
+        // E -> T + E becomes E -> E + T; only the closures predicting E change
+        Grammar<S2> edited = grammar2.edit(
+                Collections.singletonList(new Production<>(S2.E, new S2[]{S2.T, S2.PLUS, S2.E})),
+                Collections.singletonList(new Production<>(S2.E, new S2[]{S2.E, S2.PLUS, S2.T})));
+        GenerationMetrics metrics = new GenerationMetrics();
+        Automaton automaton = updateAutomaton(createAutomaton(grammar2, 0, S2.EOF), edited, S2.EOF, metrics);
+        System.out.println(metrics);
+        System.out.println(visualizeTable(createParseTable(automaton, S2.EOF, Mode.SLR), edited));
+    }
+
+    public static <E extends Enum<E>> ParseTable<E> createParseTable(final Grammar<E> grammar, final int start, E eof) {
+        return createParseTable(grammar, start, eof, Mode.LR0);
+    }
+
+    public static <E extends Enum<E>> ParseTable<E> createParseTable(final Grammar<E> grammar, final int start, E eof, final Mode mode) {
+        return createParseTable(grammar, start, eof, mode, GenerationListener.NONE);
+    }
+
+    public static <E extends Enum<E>> ParseTable<E> createParseTable(final Grammar<E> grammar, final int start, E eof, final Mode mode, final GenerationListener listener) {
+        return new ParseTable<>(createParseTable(grammar.ints(), start, eof.ordinal(), mode, listener), eof);
+    }
+
+    public static <E extends Enum<E>> ParseTable<E> createParseTable(final Grammar<E> grammar, final int start, E eof, final Mode mode, final Precedence precedence) {
+        return new ParseTable<>(createParseTable(grammar.ints(), start, eof.ordinal(), mode, precedence, GenerationListener.NONE), eof);
+    }
+
+    public static IntParseTable createParseTable(final IntGrammar grammar, final int start, final int eof, final Mode mode) {
+        return createParseTable(grammar, start, eof, mode, GenerationListener.NONE);
     }
 
     /**
      * Create a parse table for the inputted grammar.
      *
-     * @param grammar a list of productions where indices correspond to rule
+     * @param grammar a list of rules where indices correspond to rule
      *                numbers; a reduce action will specify the index of the
      *                rule to reduce by
      * @param start the rule to being state 0 from
-     * @param <E> the enum type used to index the parse table
-     * @return a parse table in the form of nested maps, where keys of the outer
-     *  map correspond to states s0 - sN and keys of the inner map correspond to
-     *  the desired grammar symbol.
+     * @param eof the number of the end-of-input symbol
+     * @param mode whether to reduce on every terminal or only on FOLLOW of
+     *             the rule's start symbol
+     * @param listener receives the counters and timings of this run
+     * @return a parse table whose rows correspond to states s0 - sN and whose
+     *  columns correspond to the grammar symbols
      */
-    public static <E extends Enum<E>> Map<Integer, Map<E, Action>> createParseTable(final Grammar<E> grammar, final int start, E eof) {
-        // collections of items as states, where states.get(i) is state i
-        List<Set<Item<E>>> states = new ArrayList<>();
-        Set<Item<E>> startItem = new HashSet<>();
-        startItem.add(new Item<>(grammar.rule(start)));
-        states.add(closure(startItem, grammar));
-
-        // map of symbols to pairs of states to transition between as a result
-        // of reading this symbol
-        Map<E, List<List<Integer>>> edges = new HashMap<>();
-
-        while(true) {
-            List<Set<Item<E>>> newStates = new ArrayList<>();
-            int newEdgeCount = 0;
-            for (int i = 0; i < states.size(); i++) {
-                Set<Item<E>> state = states.get(i);
-                for (Item<E> item : state) {
-                    if (item.remaining() == 0) continue;
-                    E symbol = item.first();
-                    // skip computing GOTO for EOF symbol
-                    if (symbol.equals(eof)) continue;
-
-                    // duplicate states could exist in "states" and this
-                    // iteration's "newStates", so check for them
-                    Set<Item<E>> newState = goTo(state, symbol, grammar);
-                    // record the state to transition to
-                    int stateIndex = stateIndex(states, newState);
-                    int newStateIndex = stateIndex(newStates, newState);
-                    if (newStateIndex >= 0) { // this has been found in this iteration
-                        stateIndex = states.size() + newStateIndex + 1;
-                    } else {
-                        if (stateIndex < 0) { // this is a new state!
-                            newStates.add(newState);
-                            stateIndex = states.size() + newStates.size();
-                        }
-                    }
+    public static IntParseTable createParseTable(final IntGrammar grammar, final int start, final int eof, final Mode mode, final GenerationListener listener) {
+        return createParseTable(grammar, start, eof, mode, new Precedence(), listener);
+    }
+
+    /**
+     * Create an LR(0) or SLR parse table for the inputted grammar, resolving
+     *  shift/reduce conflicts by precedence.
+     *
+     * @see #createParseTable(IntGrammar, int, int, Mode, GenerationListener)
+     * @see #createParseTable(Automaton, int, Mode, Precedence, GenerationListener)
+     */
+    public static IntParseTable createParseTable(final IntGrammar grammar, final int start, final int eof, final Mode mode,
+                                                 final Precedence precedence, final GenerationListener listener) {
+        long startTime = System.nanoTime();
+        IntParseTable table = createParseTable(createAutomaton(grammar, start, eof, listener), eof, mode, precedence, listener);
+        listener.generationTime(System.nanoTime() - startTime);
+        return table;
+    }
+
+    public static <E extends Enum<E>> ParseTable<E> createParseTable(final Automaton automaton, E eof, final Mode mode) {
+        return new ParseTable<>(createParseTable(automaton, eof.ordinal(), mode), eof);
+    }
+
+    public static IntParseTable createParseTable(final Automaton automaton, final int eof, final Mode mode) {
+        return createParseTable(automaton, eof, mode, GenerationListener.NONE);
+    }
+
+    /**
+     * Create a parse table from an LR(0) automaton, e.g. one produced by
+     *  {@link #updateAutomaton}.
+     *
+     * @param automaton the automaton of the grammar to create a table for
+     * @param eof the number of the end-of-input symbol
+     * @param mode whether to reduce on every terminal or only on FOLLOW of
+     *             the rule's start symbol
+     * @param listener receives the time taken to fill the table
+     * @return a parse table whose rows correspond to the automaton's states
+     *  and whose columns correspond to the grammar symbols
+     */
+    public static IntParseTable createParseTable(final Automaton automaton, final int eof, final Mode mode, final GenerationListener listener) {
+        return createParseTable(automaton, eof, mode, new Precedence(), listener);
+    }
+
+    /**
+     * Create an LR(0) or SLR parse table from the LR(0) automaton of a
+     *  grammar. Shift/reduce conflicts are resolved by precedence where it
+     *  is declared; every other conflict is recorded in the table's
+     *  {@link IntParseTable#conflicts()} and settled as yacc does, by
+     *  keeping the shift, or the reduce by the rule listed first.
+     *
+     * @param automaton the automaton of the grammar to create a table for
+     * @param eof the number of the end-of-input symbol
+     * @param mode whether to reduce on every terminal or only on FOLLOW of
+     *             the rule's start symbol
+     * @param precedence the precedence of the grammar's terminals and rules
+     * @param listener receives the time taken to fill the table
+     * @return a parse table whose rows correspond to the automaton's states
+     *  and whose columns correspond to the grammar symbols
+     */
+    public static IntParseTable createParseTable(final Automaton automaton, final int eof, final Mode mode,
+                                                 final Precedence precedence, final GenerationListener listener) {
+        final long startTime = System.nanoTime();
+        final IntGrammar grammar = automaton.grammar();
+
+        // create the parse table from the automaton's shifts and gotos;
+        // every other cell starts out as an error
+        BitSet terminals = new BitSet(grammar.symbolCount());
+        for (int s = 0; s < grammar.symbolCount(); s++) {
+            if (grammar.isTerminal(s))
+                terminals.set(s);
+        }
+        IntParseTable parseTable = new IntParseTable(grammar, eof, automaton.transitions());
+
+        // add accepts and reduces
+        for (int i = 0; i < automaton.stateCount(); i++) {
+            ItemSet state = automaton.items(i);
+            for (int k = 0; k < state.size(); k++) {
+                int next = grammar.itemNext(state.get(k));
+                if (next == eof) {
+                    parseTable.putAction(i, next, ParseTable.pack(ParseTable.ACCEPT, 0), grammar, precedence);
+                }
 
-                    List<Integer> newEdge = new ArrayList<>(Arrays.asList(i, stateIndex));
-                    if (!edgeExists(edges, newEdge, symbol)) {
-                        newEdgeCount++;
-                        if (!edges.containsKey(symbol))
-                            edges.put(symbol, new ArrayList<>());
-                        edges.get(symbol).add(newEdge);
+                if (next < 0) {
+                    int reduceRule = grammar.itemRule(state.get(k));
+                    BitSet lookahead = terminals;
+                    if (mode == Mode.SLR) {
+                        lookahead = new BitSet(grammar.symbolCount());
+                        grammar.addFollow(grammar.ruleStart(reduceRule), lookahead);
                     }
+                    for (int t = lookahead.nextSetBit(0); t >= 0; t = lookahead.nextSetBit(t + 1))
+                        parseTable.putAction(i, t, ParseTable.pack(ParseTable.REDUCE, reduceRule), grammar, precedence);
                 }
             }
-
-            if (newStates.size() == 0 && newEdgeCount == 0) break;
-            states.addAll(newStates);
         }
 
-        // create the parse table; start with every state yielding an error
-        Set<E> terminals = grammar.terminals();
-        Set<E> nonTerminals = grammar.nonTerminals();
+        listener.phaseTime(GenerationListener.Phase.TABLE, System.nanoTime() - startTime);
+        return parseTable;
+    }
 
-        Map<Integer, Map<E, Action>> parseTable = new HashMap<>();
-        for (int i = 0; i < states.size(); i++) {
-            parseTable.put(i, new HashMap<>());
-            for (E symbol : terminals)
-                parseTable.get(i).put(symbol, Action.error());
-            for (E symbol : nonTerminals)
-                parseTable.get(i).put(symbol, Action.error());
+    public static <E extends Enum<E>> Automaton createAutomaton(final Grammar<E> grammar, final int start, E eof) {
+        return createAutomaton(grammar.ints(), start, eof.ordinal());
+    }
+
+    /**
+     * Create the LR(0) automaton for the inputted grammar.
+     *
+     * @param grammar a list of rules where indices correspond to rule
+     *                numbers
+     * @param start the rule to being state 0 from
+     * @param eof the number of the end-of-input symbol; no transitions are
+     *            made on it
+     * @return the canonical collection of LR(0) item sets and the transitions
+     *  between them
+     */
+    public static Automaton createAutomaton(final IntGrammar grammar, final int start, final int eof) {
+        return createAutomaton(grammar, start, eof, GenerationListener.NONE);
+    }
+
+    /**
+     * Create the LR(0) automaton for the inputted grammar, reporting its
+     *  construction to a listener.
+     *
+     * @see #createAutomaton(IntGrammar, int, int)
+     */
+    public static Automaton createAutomaton(final IntGrammar grammar, final int start, final int eof, final GenerationListener listener) {
+        long startTime = System.nanoTime();
+        Automaton automaton = createAutomaton(grammar, start, eof, Collections.emptyMap(), listener);
+        listener.phaseTime(GenerationListener.Phase.AUTOMATON, System.nanoTime() - startTime);
+        return automaton;
+    }
+
+    public static <E extends Enum<E>> Automaton updateAutomaton(final Automaton previous, final Grammar<E> grammar, E eof) {
+        return updateAutomaton(previous, grammar.ints(), eof.ordinal(), GenerationListener.NONE);
+    }
+
+    public static <E extends Enum<E>> Automaton updateAutomaton(final Automaton previous, final Grammar<E> grammar, E eof, final GenerationListener listener) {
+        return updateAutomaton(previous, grammar.ints(), eof.ordinal(), listener);
+    }
+
+    /**
+     * Create the LR(0) automaton of a grammar edited from the grammar of a
+     *  previous automaton. The result is the automaton
+     *  {@link #createAutomaton} would build for the edited grammar, with the
+     *  same state numbering, but every previous state that predicts no
+     *  non-terminal with changed rules is reused rather than recomputed:
+     *  both its closure and the kernels of its GOTOs, which are taken from
+     *  the previous automaton's transitions. Only the lookup of each GOTO
+     *  kernel among the new states remains for such a state, since state
+     *  numbers can shift when other states are added or removed. The
+     *  transitions are still written into a new {@link
+     *  com.noahmpauls.compilers.generator.Transitions} table with a row of
+     *  every symbol for every state; for grammars with thousands of symbols,
+     *  filling it takes most of an update, as it does of a full build.
+     *
+     * @param previous the automaton of the grammar before the edit
+     * @param grammar the result of {@link IntGrammar#edit} on the previous
+     *                automaton's grammar
+     * @param eof the number of the end-of-input symbol; no transitions are
+     *            made on it
+     * @param listener receives reused closures as hits, and the other
+     *                 counters and timings of the update; the GOTOs of
+     *                 reused states are not counted as computed
+     * @return the automaton of the edited grammar
+     * @throws IllegalArgumentException if the start rule was removed
+     * @throws IllegalStateException if grammar was not created by an edit
+     */
+    public static Automaton updateAutomaton(final Automaton previous, final IntGrammar grammar, final int eof, final GenerationListener listener) {
+        long startTime = System.nanoTime();
+        final IntGrammar old = previous.grammar();
+
+        // previous item number -> item number in the edited grammar, or -1
+        // if the item's rule was removed. A symbol is changed if a rule
+        // starting with it was removed or added; closures that predict a
+        // changed symbol must be recomputed
+        boolean[] changed = new boolean[grammar.symbolCount()];
+        int[] ruleMap = new int[old.ruleCount()];
+        Arrays.fill(ruleMap, -1);
+        for (int r = 0; r < grammar.ruleCount(); r++) {
+            if (grammar.previousRule(r) >= 0)
+                ruleMap[grammar.previousRule(r)] = r;
+            else
+                changed[grammar.ruleStart(r)] = true;
+        }
+        int[] itemMap = new int[old.itemCount()];
+        for (int r = 0; r < old.ruleCount(); r++) {
+            if (ruleMap[r] < 0)
+                changed[old.ruleStart(r)] = true;
+            for (int dot = 0; dot <= old.ruleSize(r); dot++)
+                itemMap[old.item(r, dot)] = ruleMap[r] < 0 ? -1 : grammar.item(ruleMap[r], dot);
+        }
+        final int start = ruleMap[previous.startRule()];
+        if (start < 0)
+            throw new IllegalArgumentException("the start rule " + old.ruleString(previous.startRule()) + " cannot be removed");
+
+        // renumber the kernel of every previous state whose kernel items
+        // all remain: the start item for state 0 and the items with the dot
+        // moved for every other state
+        final int oldStartItem = old.item(previous.startRule(), 0);
+        ItemSet[] kernels = new ItemSet[previous.stateCount()];
+        boolean[] reusable = new boolean[previous.stateCount()];
+        for (int i = 0; i < previous.stateCount(); i++) {
+            ItemSet state = previous.items(i);
+            int[] kernel = new int[state.size()];
+            int kernelSize = 0;
+            boolean removed = false;
+            reusable[i] = true;
+            for (int k = 0; k < state.size(); k++) {
+                int item = state.get(k);
+                int next = old.itemNext(item);
+                boolean inKernel = i == 0 ? item == oldStartItem : old.itemDot(item) > 0;
+                if (itemMap[item] < 0 || next >= 0 && changed[next])
+                    reusable[i] = false;
+                if (inKernel && itemMap[item] < 0)
+                    removed = true;
+                else if (inKernel)
+                    kernel[kernelSize++] = itemMap[item];
+            }
+            if (!removed)
+                kernels[i] = ItemSet.of(kernel, kernelSize);
         }
 
-        // add shifts and gotos
-        for (E symbol : edges.keySet()) {
-            List<List<Integer>> edgeList = edges.get(symbol);
-            for (List<Integer> itoj : edgeList) {
-                int i = itoj.get(0);
-                int j = itoj.get(1);
-                if (nonTerminals.contains(symbol)) {
-                    Action existingAction = parseTable.get(i).get(symbol);
-                    if (!existingAction.type.equals(Action.ActionType.ERROR) && !existingAction.type.equals(Action.ActionType.GOTO)) {
-                        System.out.println("rule conflict for state " + i + " symbol " + symbol.name() + ": existing " + existingAction.type.name());
-                    }
-                    parseTable.get(i).put(symbol, Action.goTo(j));
-                } else {
-                    Action existingAction = parseTable.get(i).get(symbol);
-                    if (!existingAction.type.equals(Action.ActionType.ERROR) && !existingAction.type.equals(Action.ActionType.SHIFT)) {
-                        System.out.println("rule conflict for state " + i + " symbol " + symbol.name() + ": existing " + existingAction.type.name());
-                    }
-                    parseTable.get(i).put(symbol, Action.shift(j));
+        // key the reusable states by kernel. Every item of a reusable state
+        // remains, so the kernels of its GOTOs, whose items are its own with
+        // the dot moved, are the renumbered kernels of its successors
+        Map<ItemSet, ReusedState> reused = new HashMap<>();
+        // seen[symbol] == i + 1 once state i's GOTO on symbol is collected
+        int[] seen = new int[old.symbolCount()];
+        int[] symbols = new int[old.symbolCount()];
+        for (int i = 0; i < previous.stateCount(); i++) {
+            if (!reusable[i]) continue;
+            ItemSet state = previous.items(i);
+            int[] items = new int[state.size()];
+            int symbolCount = 0;
+            for (int k = 0; k < state.size(); k++) {
+                items[k] = itemMap[state.get(k)];
+                int next = old.itemNext(state.get(k));
+                if (next >= 0 && next != eof && seen[next] != i + 1) {
+                    seen[next] = i + 1;
+                    symbols[symbolCount++] = next;
                 }
-
             }
+            int[] goToSymbols = Arrays.copyOf(symbols, symbolCount);
+            Arrays.sort(goToSymbols);
+            ItemSet[] goToKernels = new ItemSet[symbolCount];
+            for (int t = 0; t < symbolCount; t++)
+                goToKernels[t] = kernels[previous.transition(i, goToSymbols[t])];
+            reused.put(kernels[i], new ReusedState(ItemSet.of(items, items.length), goToSymbols, goToKernels));
         }
 
-        // add accepts and gotos
+        Automaton automaton = createAutomaton(grammar, start, eof, reused, listener);
+        long time = System.nanoTime() - startTime;
+        listener.phaseTime(GenerationListener.Phase.AUTOMATON, time);
+        listener.generationTime(time);
+        return automaton;
+    }
+
+    /**
+     * A state of a previous automaton that an edit left unchanged: its
+     *  closure, and the symbols and kernels of its GOTOs in symbol order.
+     */
+    private static final class ReusedState {
+        final ItemSet closure;
+        final int[] goToSymbols;
+        final ItemSet[] goToKernels;
+
+        ReusedState(final ItemSet closure, final int[] goToSymbols, final ItemSet[] goToKernels) {
+            this.closure = closure;
+            this.goToSymbols = goToSymbols;
+            this.goToKernels = goToKernels;
+        }
+    }
+
+    /**
+     * Build the LR(0) automaton of a grammar, taking the closure and GOTO
+     *  kernels of each kernel from reused where present.
+     *
+     * @param listener receives closures taken from reused as hits, and the
+     *                 states, GOTOs and closures computed
+     */
+    private static Automaton createAutomaton(final IntGrammar grammar, final int start, final int eof,
+                                             final Map<ItemSet, ReusedState> reused, final GenerationListener listener) {
+        // collections of items as states, where states.get(i) is state i,
+        // and the previous state each was reused from, or null
+        List<ItemSet> states = new ArrayList<>();
+        List<ReusedState> sources = new ArrayList<>();
+        ItemSet startItem = ItemSet.of(new int[]{ grammar.item(start, 0) }, 1);
+        addState(startItem, grammar, reused, states, sources, listener);
+        listener.stateCreated(0, states.get(0).size());
+
+        // kernels of known states, mapped to their state index; a state's
+        // kernel determines its closure, so only new kernels are closed
+        Map<ItemSet, Integer> kernelIndex = new HashMap<>();
+        kernelIndex.put(startItem, 0);
+
+        // GOTO(i, symbol) for every state i, indexed by symbol number
+        final int symbolCount = grammar.symbolCount();
+        Transitions transitions = new Transitions(symbolCount);
+        transitions.addState();
+
+        // buffers for grouping a state's items by the symbol after the dot;
+        // touched lists the symbols whose buffers are in use
+        int[][] kernels = new int[symbolCount][];
+        int[] kernelSizes = new int[symbolCount];
+        int[] touched = new int[symbolCount];
+        ItemSet[] touchedKernels = new ItemSet[symbolCount];
+
+        // states are expanded in the order they are created, so each state
+        // is visited once and its GOTO is computed once per symbol
         for (int i = 0; i < states.size(); i++) {
-            for (Item<E> item : states.get(i)) {
-                if (item.remaining() > 0 && item.first().equals(eof)) {
-                    Action existingAction = parseTable.get(i).get(eof);
-                    if (!existingAction.type.equals(Action.ActionType.ERROR) && !existingAction.type.equals(Action.ActionType.ACCEPT)) {
-                        System.out.println("rule conflict for state " + i + " symbol " + eof.name() + ": existing " + existingAction.type.name());
-                    }
-                    parseTable.get(i).put(eof, Action.accept());
+            ReusedState source = sources.get(i);
+            int[] goToSymbols;
+            ItemSet[] goToKernels;
+            int touchedCount = 0;
+            if (source != null) {
+                goToSymbols = source.goToSymbols;
+                goToKernels = source.goToKernels;
+                touchedCount = goToSymbols.length;
+            } else {
+                goToSymbols = touched;
+                goToKernels = touchedKernels;
+            }
+
+            // group the state's items by the symbol after the dot, moving the
+            // dot over it to form the kernel of each GOTO
+            ItemSet state = states.get(i);
+            for (int k = 0; source == null && k < state.size(); k++) {
+                int symbol = grammar.itemNext(state.get(k));
+                // skip computing GOTO for EOF symbol
+                if (symbol < 0 || symbol == eof) continue;
+                if (kernelSizes[symbol] == 0) {
+                    touched[touchedCount++] = symbol;
+                    if (kernels[symbol] == null)
+                        kernels[symbol] = new int[4];
+                } else if (kernelSizes[symbol] == kernels[symbol].length) {
+                    kernels[symbol] = Arrays.copyOf(kernels[symbol], kernelSizes[symbol] * 2);
                 }
+                kernels[symbol][kernelSizes[symbol]++] = state.get(k) + 1;
+            }
 
-                if (item.remaining() == 0) {
-                    int reduceRule = grammar.ruleNum(item.production());
-                    for (E symbol : terminals) {
-                        Action existingAction = parseTable.get(i).get(symbol);
-                        if (!existingAction.type.equals(Action.ActionType.ERROR) && !existingAction.type.equals(Action.ActionType.REDUCE)) {
-                            System.out.println("rule conflict for state " + i + " symbol " + symbol.name() + ": existing " + existingAction.type.name());
-                        }
-                        parseTable.get(i).put(symbol, Action.reduce(reduceRule));
-                    }
+            if (source == null) {
+                Arrays.sort(touched, 0, touchedCount);
+                listener.goTos(touchedCount);
+                for (int t = 0; t < touchedCount; t++) {
+                    touchedKernels[t] = ItemSet.of(kernels[touched[t]], kernelSizes[touched[t]]);
+                    kernelSizes[touched[t]] = 0;
                 }
             }
-        }
 
-        return parseTable;
-    }
+            for (int t = 0; t < touchedCount; t++) {
+                int symbol = goToSymbols[t];
+                ItemSet kernel = goToKernels[t];
+                Integer stateIndex = kernelIndex.get(kernel);
+                if (stateIndex == null) { // this is a new state!
+                    stateIndex = transitions.addState();
+                    addState(kernel, grammar, reused, states, sources, listener);
+                    kernelIndex.put(kernel, stateIndex);
+                    listener.stateCreated(stateIndex, states.get(stateIndex).size());
+                } else {
+                    listener.duplicateState();
+                }
 
-    private static <E extends Enum<E>> int stateIndex(List<Set<Item<E>>> existing, Set<Item<E>> toAdd) {
-        for (int i = 0; i < existing.size(); i++) {
-            Set<Item<E>> state = existing.get(i);
-            if (state.equals(toAdd)) {
-                return i;
+                transitions.put(i, symbol, stateIndex);
             }
         }
-        return -1;
+
+        if (listener.wantsStates()) {
+            for (int i = 0; i < states.size(); i++) {
+                List<String> items = new ArrayList<>();
+                for (int k = 0; k < states.get(i).size(); k++)
+                    items.add(grammar.itemString(states.get(i).get(k)));
+                listener.state(i, items);
+            }
+        }
+
+        return new Automaton(grammar, start, states, transitions);
     }
 
-    private static <E extends Enum<E>> boolean edgeExists(Map<E, List<List<Integer>>> existing, List<Integer> toAdd, E key) {
-        if (!existing.containsKey(key))
-            return false;
-        for (List<Integer> edge : existing.get(key)) {
-            if (edge.equals(toAdd))
-                return true;
+    private static void addState(final ItemSet kernel, final IntGrammar grammar, final Map<ItemSet, ReusedState> reused,
+                                 final List<ItemSet> states, final List<ReusedState> sources, final GenerationListener listener) {
+        ReusedState known = reused.get(kernel);
+        if (known != null) {
+            listener.closureHit();
+            states.add(known.closure);
+        } else {
+            states.add(closure(kernel, grammar, listener));
         }
-        return false;
+        sources.add(known);
     }
 
     public static <E extends Enum<E>> Set<Item<E>> closure(final Set<Item<E>> items, final Grammar<E> grammar) {
-        Set<Item<E>> closure = new HashSet<>(items);
-
-        // loop for as long as new items can be added to the closure
-        while(true) {
-            Set<Item<E>> newItems = new HashSet<>();
-            // for each item, find whether new items can be made from it
-            for (Item<E> item : closure) {
-                if (item.remaining() == 0) continue;
-                E start = item.first();
-                Set<Production<E>> newProductions = grammar.withStart(start);
-                for (Production<E> p : newProductions) {
-                    newItems.add(new Item<>(p));
-                }
-            }
-            // break if all "new" items are in closure already
-            if (closure.containsAll(newItems)) break;
-            closure.addAll(newItems);
+        return closure(ItemSet.of(items, grammar), grammar.ints()).toItems(grammar);
+    }
+
+    /**
+     * Create the closure of a set of LR(0) items. Every rule of a
+     *  non-terminal is added at once the first time the non-terminal follows
+     *  a dot, so each item is added exactly once.
+     *
+     * @param kernel set of items
+     * @param grammar the grammar to generate the closure from
+     * @return CLOSURE(kernel)
+     */
+    public static ItemSet closure(final ItemSet kernel, final IntGrammar grammar) {
+        return closure(kernel, grammar, GenerationListener.NONE);
+    }
+
+    private static ItemSet closure(final ItemSet kernel, final IntGrammar grammar, final GenerationListener listener) {
+        int[] items = new int[Math.max(16, kernel.size() * 2)];
+        int size = 0;
+        for (int k = 0; k < kernel.size(); k++)
+            items[size++] = kernel.get(k);
+
+        BitSet predicted = new BitSet(grammar.symbolCount());
+        for (int k = 0; k < size; k++) {
+            int symbol = grammar.itemNext(items[k]);
+            if (symbol < 0 || predicted.get(symbol)) continue;
+            predicted.set(symbol);
+            int count = grammar.startRuleCount(symbol);
+            if (size + count > items.length)
+                items = Arrays.copyOf(items, Math.max(items.length * 2, size + count));
+            for (int j = 0; j < count; j++)
+                items[size++] = grammar.item(grammar.startRule(symbol, j), 0);
         }
 
-        return closure;
+        listener.closureComputed(size);
+        return ItemSet.of(items, size);
     }
 
     public static <E extends Enum<E>> Set<Item<E>> goTo(final Set<Item<E>> items, final E symbol, final Grammar<E> grammar) {
-        Set<Item<E>> nextItems = new HashSet<>();
+        return closure(gotoKernel(items, symbol), grammar);
+    }
+
+    /**
+     * Find the kernel of GOTO(items, symbol): the items of the set with the
+     *  dot moved over symbol, before taking the closure.
+     */
+    private static <E extends Enum<E>> Set<Item<E>> gotoKernel(final Set<Item<E>> items, final E symbol) {
+        Set<Item<E>> kernel = new HashSet<>();
         for (Item<E> item : items) {
             if (item.remaining() > 0 && item.first().equals(symbol))
-                nextItems.add(item.shift());
+                kernel.add(item.shift());
         }
-        return closure(nextItems, grammar);
+        return kernel;
+    }
+
+    public static <E extends Enum<E>> String visualizeTable(final ParseTable<E> parseTable, final Grammar<E> grammar) {
+        return visualizeTable(parseTable.toMap(), grammar);
     }
 
     public static <E extends Enum<E>> String visualizeTable(final Map<Integer, Map<E, Action>> parseTable, final Grammar<E> grammar) {